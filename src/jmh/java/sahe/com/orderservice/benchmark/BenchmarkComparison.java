@@ -0,0 +1,100 @@
+package sahe.com.orderservice.benchmark;
+
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.File;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares two JMH JSON result files (a baseline and a new run) benchmark by benchmark and
+ * exits with 1 if a score or the allocation per operation got worse than the threshold.
+ * <p>
+ * Usage: {@code BenchmarkComparison <baseline.json> <current.json> [threshold-percent]}
+ */
+public final class BenchmarkComparison {
+
+    private static final String ALLOCATION = "gc.alloc.rate.norm";
+
+    private BenchmarkComparison() {
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage: BenchmarkComparison <baseline.json> <current.json> [threshold-percent]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10.0;
+        File baselineFile = new File(args[0]);
+        File currentFile = new File(args[1]);
+        if (!baselineFile.isFile()) {
+            System.err.printf("No baseline results at %s: set jmh.baseline.version to the last release "
+                    + "or pass -Djmh.baseline=<file>%n", baselineFile);
+            System.exit(2);
+        }
+        if (baselineFile.getAbsoluteFile().toPath().normalize()
+                .equals(currentFile.getAbsoluteFile().toPath().normalize())) {
+            System.err.printf("Baseline and current results are the same file: %s%n", baselineFile);
+            System.exit(2);
+        }
+        Map<String, JsonNode> baseline = read(baselineFile);
+        Map<String, JsonNode> current = read(currentFile);
+
+        int regressions = 0;
+        for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+            JsonNode before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.printf("NEW         %s%n", entry.getKey());
+                continue;
+            }
+            JsonNode after = entry.getValue();
+            // Throughput should not drop; time and allocation per operation should not grow
+            boolean higherIsBetter = "thrpt".equals(after.path("mode").asString());
+            double scoreChange = change(before.path("primaryMetric"), after.path("primaryMetric"));
+            double allocationChange = change(secondary(before, ALLOCATION), secondary(after, ALLOCATION));
+            boolean regressed = (higherIsBetter ? -scoreChange : scoreChange) > threshold
+                    || allocationChange > threshold;
+            if (regressed) {
+                regressions++;
+            }
+            System.out.printf("%-11s %s: score %+.1f%%, allocation %+.1f%%%n",
+                    regressed ? "REGRESSION" : "ok", entry.getKey(), scoreChange, allocationChange);
+        }
+        System.out.printf("%d regression(s) above %.1f%%%n", regressions, threshold);
+        System.exit(regressions == 0 ? 0 : 1);
+    }
+
+    // Results keyed by benchmark method plus its parameters
+    private static Map<String, JsonNode> read(File file) {
+        Map<String, JsonNode> results = new TreeMap<>();
+        for (JsonNode result : JsonMapper.builder().build().readTree(file)) {
+            Map<String, String> params = new TreeMap<>();
+            for (Map.Entry<String, JsonNode> param : result.path("params").properties()) {
+                params.put(param.getKey(), param.getValue().asString());
+            }
+            StringBuilder key = new StringBuilder(result.path("benchmark").asString());
+            params.forEach((name, value) -> key.append(' ').append(name).append('=').append(value));
+            results.put(key.toString(), result);
+        }
+        return results;
+    }
+
+    // Older JMH versions prefix secondary metric names with a middle dot
+    private static JsonNode secondary(JsonNode result, String name) {
+        for (Map.Entry<String, JsonNode> metric : result.path("secondaryMetrics").properties()) {
+            if (metric.getKey().endsWith(name)) {
+                return metric.getValue();
+            }
+        }
+        return null;
+    }
+
+    private static double change(JsonNode before, JsonNode after) {
+        if (before == null || after == null || before.path("score").asDouble() == 0) {
+            return 0;
+        }
+        double old = before.path("score").asDouble();
+        return (after.path("score").asDouble() - old) / old * 100;
+    }
+}
@@ -0,0 +1,40 @@
+package sahe.com.orderservice.benchmark;
+
+import sahe.com.orderservice.model.Order;
+import sahe.com.orderservice.model.OrderItem;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/** Order fixtures shared by the benchmarks. */
+final class BenchmarkOrders {
+
+    private BenchmarkOrders() {
+    }
+
+    static Order order(long id, int lines) {
+        Order order = new Order();
+        order.setId(id);
+        order.setUserId(id % 1_000);
+        order.setStatus(Order.OrderStatus.CONFIRMED);
+        order.setShippingAddress("Av. Siempre Viva 742");
+        order.setShippingCity("Lima");
+        order.setShippingCountry("Peru");
+        order.setPaymentMethod("CARD");
+        order.setCreatedAt(LocalDateTime.of(2025, 1, 10, 12, 0));
+        order.setUpdatedAt(order.getCreatedAt());
+        order.setVersion(1L);
+        for (int line = 1; line <= lines; line++) {
+            OrderItem item = new OrderItem();
+            item.setId(id * 1_000 + line);
+            item.setProductId((long) line);
+            item.setProductName("Product " + line);
+            item.setQuantity(line % 5 + 1);
+            item.setUnitPrice(new BigDecimal("19.99"));
+            item.calculateSubtotal();
+            order.addItem(item);
+        }
+        order.calculateTotal();
+        return order;
+    }
+}
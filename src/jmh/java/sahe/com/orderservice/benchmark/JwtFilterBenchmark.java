@@ -0,0 +1,112 @@
+package sahe.com.orderservice.benchmark;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import sahe.com.orderservice.security.JwtAuthenticationFilter;
+import sahe.com.orderservice.security.JwtUtils;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the original filter path (three key builds, three parses and three signature
+ * checks per request) with the current one (one parse, or a cache hit for a repeated token).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtFilterBenchmark {
+
+    private static final String SECRET = "SmartCommerceSecretKeyForJWTTokenGenerationAndValidation2024SecureKey";
+
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> { };
+
+    private String token;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+    private JwtAuthenticationFilter cachedFilter;
+    private JwtAuthenticationFilter uncachedFilter;
+
+    @Setup
+    public void setUp() {
+        SecretKey key = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        token = Jwts.builder()
+                .subject("client@smartcommerce.com")
+                .claim("role", "CLIENT")
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + Duration.ofHours(1).toMillis()))
+                .signWith(key)
+                .compact();
+
+        request = new MockHttpServletRequest("GET", "/orders/1");
+        request.addHeader("Authorization", "Bearer " + token);
+        response = new MockHttpServletResponse();
+
+        cachedFilter = new JwtAuthenticationFilter(new JwtUtils(SECRET, 10_000, Duration.ofMinutes(5)));
+        uncachedFilter = new JwtAuthenticationFilter(new JwtUtils(SECRET, 0, Duration.ofMinutes(5)));
+    }
+
+    @Benchmark
+    public void legacyFilterPath(Blackhole blackhole) {
+        String jwt = request.getHeader("Authorization").substring(7);
+        if (LegacyJwtUtils.validateToken(jwt)) {
+            String email = LegacyJwtUtils.getEmailFromToken(jwt);
+            String role = LegacyJwtUtils.getRoleFromToken(jwt);
+            UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                    email, null, List.of(new SimpleGrantedAuthority("ROLE_" + role)));
+            SecurityContextHolder.getContext().setAuthentication(authentication);
+            blackhole.consume(authentication);
+        }
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public void filterSingleParse() throws Exception {
+        uncachedFilter.doFilter(request, response, NO_OP_CHAIN);
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public void filterCachedToken() throws Exception {
+        cachedFilter.doFilter(request, response, NO_OP_CHAIN);
+        SecurityContextHolder.clearContext();
+    }
+
+    /** The token handling JwtUtils had before verification results were cached. */
+    static final class LegacyJwtUtils {
+
+        static String getEmailFromToken(String token) {
+            SecretKey key = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+            Claims claims = Jwts.parser().verifyWith(key).build().parseSignedClaims(token).getPayload();
+            return claims.getSubject();
+        }
+
+        static String getRoleFromToken(String token) {
+            SecretKey key = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+            Claims claims = Jwts.parser().verifyWith(key).build().parseSignedClaims(token).getPayload();
+            return claims.get("role", String.class);
+        }
+
+        static boolean validateToken(String token) {
+            SecretKey key = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+            Jwts.parser().verifyWith(key).build().parseSignedClaims(token);
+            return true;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package sahe.com.orderservice.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import sahe.com.orderservice.dto.OrderResponse;
+import sahe.com.orderservice.model.Order;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The read path after the query: mapping entities to {@link OrderResponse} and writing a list
+ * of responses as JSON, as the list endpoints do.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderResponseBenchmark {
+
+    @Param({"1", "100"})
+    private int orders;
+
+    @Param({"1", "10", "50"})
+    private int lines;
+
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+    private List<Order> entities;
+    private List<OrderResponse> responses;
+
+    @Setup
+    public void setUp() {
+        entities = new ArrayList<>(orders);
+        for (long id = 1; id <= orders; id++) {
+            entities.add(BenchmarkOrders.order(id, lines));
+        }
+        responses = entities.stream().map(OrderResponse::new).toList();
+    }
+
+    @Benchmark
+    public void mapToResponses(Blackhole blackhole) {
+        for (Order order : entities) {
+            blackhole.consume(new OrderResponse(order));
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeResponses() {
+        return jsonMapper.writeValueAsBytes(responses);
+    }
+}
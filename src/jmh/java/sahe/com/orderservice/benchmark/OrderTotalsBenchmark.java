@@ -0,0 +1,63 @@
+package sahe.com.orderservice.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import sahe.com.orderservice.model.Order;
+import sahe.com.orderservice.model.OrderItem;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Line subtotals and the order total as buildOrder computes them, across cart sizes, next to
+ * the BigDecimal-only arithmetic the model used before the cents fast path.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderTotalsBenchmark {
+
+    @Param({"1", "10", "100"})
+    private int lines;
+
+    private Order order;
+
+    @Setup
+    public void setUp() {
+        order = BenchmarkOrders.order(1L, lines);
+    }
+
+    @Benchmark
+    public BigDecimal calculateSubtotals() {
+        BigDecimal last = null;
+        for (OrderItem item : order.getItems()) {
+            item.calculateSubtotal();
+            last = item.getSubtotal();
+        }
+        return last;
+    }
+
+    @Benchmark
+    public BigDecimal calculateTotal() {
+        order.calculateTotal();
+        return order.getTotalAmount();
+    }
+
+    @Benchmark
+    public BigDecimal legacyCalculateSubtotals() {
+        BigDecimal last = null;
+        for (OrderItem item : order.getItems()) {
+            last = item.getUnitPrice().multiply(BigDecimal.valueOf(item.getQuantity()));
+        }
+        return last;
+    }
+
+    @Benchmark
+    public BigDecimal legacyCalculateTotal() {
+        return order.getItems().stream()
+                .map(OrderItem::getSubtotal)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+}
@@ -0,0 +1,89 @@
+package sahe.com.orderservice.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import sahe.com.orderservice.exception.InvalidStatusTransitionException;
+import sahe.com.orderservice.model.Order;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the original if-chain validation, which builds a new RuntimeException (message
+ * concatenation plus stack trace) for every rejection, with the transition bitmask and its
+ * preallocated stackless exceptions. Each invocation checks all 25 status pairs, 20 of which
+ * are rejected.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StatusTransitionBenchmark {
+
+    private static final Order.OrderStatus[] STATUSES = Order.OrderStatus.values();
+
+    @Benchmark
+    public void legacyIfChain(Blackhole blackhole) {
+        for (Order.OrderStatus from : STATUSES) {
+            for (Order.OrderStatus to : STATUSES) {
+                try {
+                    legacyValidate(from, to);
+                    blackhole.consume(true);
+                } catch (RuntimeException e) {
+                    blackhole.consume(e);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void matrixCheck(Blackhole blackhole) {
+        for (Order.OrderStatus from : STATUSES) {
+            for (Order.OrderStatus to : STATUSES) {
+                blackhole.consume(from.canTransitionTo(to));
+            }
+        }
+    }
+
+    @Benchmark
+    public void matrixWithPreallocatedRejection(Blackhole blackhole) {
+        for (Order.OrderStatus from : STATUSES) {
+            for (Order.OrderStatus to : STATUSES) {
+                try {
+                    if (!from.canTransitionTo(to)) {
+                        throw InvalidStatusTransitionException.of(from, to);
+                    }
+                    blackhole.consume(true);
+                } catch (InvalidStatusTransitionException e) {
+                    blackhole.consume(e);
+                }
+            }
+        }
+    }
+
+    /** OrderService.validateStatusTransition before the transition matrix. */
+    private static void legacyValidate(Order.OrderStatus current, Order.OrderStatus newStatus) {
+        if (current == Order.OrderStatus.PENDING) {
+            if (newStatus != Order.OrderStatus.CONFIRMED && newStatus != Order.OrderStatus.CANCELLED) {
+                throw new RuntimeException("Invalid state transition from PENDING to" + newStatus);
+            }
+        }
+        if (current == Order.OrderStatus.CONFIRMED) {
+            if (newStatus != Order.OrderStatus.SHIPPED && newStatus != Order.OrderStatus.CANCELLED) {
+                throw new RuntimeException("Invalid state transition from CONFIRMED to " + newStatus);
+            }
+        }
+        if (current == Order.OrderStatus.SHIPPED) {
+            if (newStatus != Order.OrderStatus.DELIVERED) {
+                throw new RuntimeException("Invalid state transition from SHIPPED to " + newStatus);
+            }
+        }
+        if (current == Order.OrderStatus.DELIVERED) {
+            throw new RuntimeException("The status of a delivered order cannot be changed.");
+        }
+        if (current == Order.OrderStatus.CANCELLED) {
+            throw new RuntimeException("The status of a cancelled order cannot be changed.");
+        }
+    }
+}
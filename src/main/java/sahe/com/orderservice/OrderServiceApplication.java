@@ -3,12 +3,9 @@ package sahe.com.orderservice;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
-import org.springframework.cloud.openfeign.EnableFeignClients;
-import sahe.com.orderservice.config.FeignConfig;
 
 @SpringBootApplication
 @EnableDiscoveryClient
-@EnableFeignClients(defaultConfiguration = FeignConfig.class)
 public class OrderServiceApplication {
 
     public static void main(String[] args) {
@@ -19,9 +16,12 @@ public class OrderServiceApplication {
                 GET /orders - Get all orders
                 GET /orders/{id} - Get order by id
                 GET /orders/user/{userId} - Get orders by user
+                GET /orders?size=&cursor= - Keyset-paginated orders (also /user/{userId}, /status/{status})
+                GET /orders (Accept: application/x-ndjson) - Stream orders as NDJSON
                 POST /orders - Create order
                 PATCH /orders/{id}/status - Update status
                 PATCH /orders/{id}/cancel - Cancel order
+                DELETE /orders/catalog-cache/{productId} - Invalidate a cached product
                 """);
     }
 
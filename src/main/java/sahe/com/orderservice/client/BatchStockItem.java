@@ -0,0 +1,13 @@
+package sahe.com.orderservice.client;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchStockItem {
+    private Long productId;
+    private Integer quantity;
+}
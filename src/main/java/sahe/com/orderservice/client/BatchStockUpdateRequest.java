@@ -0,0 +1,15 @@
+package sahe.com.orderservice.client;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchStockUpdateRequest {
+    private List<BatchStockItem> items;
+    private String reason;
+}
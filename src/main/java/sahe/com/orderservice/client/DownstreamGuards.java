@@ -0,0 +1,165 @@
+package sahe.com.orderservice.client;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import sahe.com.orderservice.config.ResilienceProperties;
+import sahe.com.orderservice.exception.DownstreamUnavailableException;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Wraps every Feign call (installed as a Capability in FeignConfig) with, per downstream
+ * client: a circuit breaker, a bulkhead bounding concurrent and queued calls, and per-method
+ * timeouts. Calls that are not attempted fail fast with {@link DownstreamUnavailableException};
+ * calls that get no response (timeout, I/O error) fail with it too, instead of Feign's
+ * RetryableException, so they are answered with 503.
+ * Attempted calls are timed in {@value #CALL_TIMER} per client and Feign method.
+ */
+@Component
+@Slf4j
+public class DownstreamGuards {
+
+    public static final String CALL_TIMER = "order.downstream.call";
+
+    private final ResilienceProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final CircuitBreakerRegistry circuitBreakers = CircuitBreakerRegistry.ofDefaults();
+    private final ConcurrentMap<String, Guard> guards = new ConcurrentHashMap<>();
+
+    public DownstreamGuards(ResilienceProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakers).bindTo(meterRegistry);
+    }
+
+    public Client wrap(Client delegate) {
+        return (request, options) -> guardFor(request.requestTemplate().feignTarget().name())
+                .execute(request, options, delegate);
+    }
+
+    public CircuitBreaker.State circuitState(String client) {
+        return guardFor(client).circuitBreaker.getState();
+    }
+
+    private Guard guardFor(String client) {
+        return guards.computeIfAbsent(client, name -> new Guard(name, properties.policyFor(name)));
+    }
+
+    private final class Guard {
+
+        private final String client;
+        private final ResilienceProperties.Policy policy;
+        private final CircuitBreaker circuitBreaker;
+        private final Semaphore permits;
+        private final AtomicInteger queued = new AtomicInteger();
+
+        private Guard(String client, ResilienceProperties.Policy policy) {
+            this.client = client;
+            this.policy = policy;
+            this.permits = new Semaphore(policy.getMaxConcurrentCalls());
+            this.circuitBreaker = circuitBreakers.circuitBreaker(client, CircuitBreakerConfig.custom()
+                    .slidingWindowSize(policy.getSlidingWindowSize())
+                    .minimumNumberOfCalls(policy.getMinimumNumberOfCalls())
+                    .failureRateThreshold(policy.getFailureRateThreshold())
+                    .slowCallRateThreshold(policy.getSlowCallRateThreshold())
+                    .slowCallDurationThreshold(policy.getSlowCallDuration())
+                    .waitDurationInOpenState(policy.getWaitDurationInOpenState())
+                    .permittedNumberOfCallsInHalfOpenState(policy.getPermittedCallsInHalfOpenState())
+                    .recordResult(result -> result instanceof Response response && response.status() >= 500)
+                    .build());
+            circuitBreaker.getEventPublisher().onStateTransition(event ->
+                    log.warn("Circuit breaker for {}: {}", client, event.getStateTransition()));
+            Gauge.builder("order.downstream.bulkhead.active", permits,
+                            available -> policy.getMaxConcurrentCalls() - available.availablePermits())
+                    .tag("client", client)
+                    .register(meterRegistry);
+            Gauge.builder("order.downstream.bulkhead.queued", queued, AtomicInteger::get)
+                    .tag("client", client)
+                    .register(meterRegistry);
+        }
+
+        private Response execute(Request request, Request.Options options, Client delegate) throws IOException {
+            if (!circuitBreaker.tryAcquirePermission()) {
+                throw reject("circuit_open", "circuit breaker is open", policy.getWaitDurationInOpenState());
+            }
+            if (!enterBulkhead()) {
+                circuitBreaker.releasePermission();
+                throw reject("bulkhead_full", "too many concurrent calls", properties.getRetryAfter());
+            }
+            String method = request.requestTemplate().methodMetadata().method().getName();
+            long start = System.nanoTime();
+            String outcome = "error";
+            try {
+                Response response = delegate.execute(request, optionsFor(method, options));
+                circuitBreaker.onResult(System.nanoTime() - start, TimeUnit.NANOSECONDS, response);
+                outcome = response.status() >= 500 ? "server_error"
+                        : response.status() >= 400 ? "client_error" : "success";
+                return response;
+            } catch (IOException e) {
+                circuitBreaker.onError(System.nanoTime() - start, TimeUnit.NANOSECONDS, e);
+                throw new DownstreamUnavailableException(client, "no response to " + method + " (" + e.getMessage() + ")",
+                        properties.getRetryAfter(), e);
+            } catch (RuntimeException e) {
+                circuitBreaker.onError(System.nanoTime() - start, TimeUnit.NANOSECONDS, e);
+                throw e;
+            } finally {
+                permits.release();
+                Timer.builder(CALL_TIMER)
+                        .tag("client", client)
+                        .tag("method", method)
+                        .tag("outcome", outcome)
+                        .register(meterRegistry)
+                        .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        private boolean enterBulkhead() {
+            if (permits.tryAcquire()) {
+                return true;
+            }
+            if (queued.incrementAndGet() > policy.getMaxQueueDepth()) {
+                queued.decrementAndGet();
+                return false;
+            }
+            try {
+                return permits.tryAcquire(policy.getMaxQueueWait().toNanos(), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            } finally {
+                queued.decrementAndGet();
+            }
+        }
+
+        private Request.Options optionsFor(String method, Request.Options options) {
+            Duration readTimeout = policy.getMethodTimeouts().getOrDefault(method, policy.getReadTimeout());
+            return new Request.Options(policy.getConnectTimeout(), readTimeout, options.isFollowRedirects());
+        }
+
+        private DownstreamUnavailableException reject(String reason, String message, Duration retryAfter) {
+            Counter.builder("order.downstream.rejected")
+                    .tag("client", client)
+                    .tag("reason", reason)
+                    .register(meterRegistry)
+                    .increment();
+            return new DownstreamUnavailableException(client, message, retryAfter);
+        }
+    }
+}
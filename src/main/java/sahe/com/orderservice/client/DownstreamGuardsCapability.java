@@ -0,0 +1,22 @@
+package sahe.com.orderservice.client;
+
+import feign.Capability;
+import feign.Client;
+
+/**
+ * Installs {@link DownstreamGuards} around the HTTP client of a Feign client. Public because
+ * Feign finds and calls {@code enrich} reflectively, which fails on a non-public class.
+ */
+public class DownstreamGuardsCapability implements Capability {
+
+    private final DownstreamGuards downstreamGuards;
+
+    public DownstreamGuardsCapability(DownstreamGuards downstreamGuards) {
+        this.downstreamGuards = downstreamGuards;
+    }
+
+    @Override
+    public Client enrich(Client client) {
+        return downstreamGuards.wrap(client);
+    }
+}
@@ -3,6 +3,8 @@ package sahe.com.orderservice.client;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @FeignClient(name = "inventory-service")
 public interface InventoryClient {
 
@@ -19,5 +21,14 @@ public interface InventoryClient {
             @PathVariable Long productId,
             @RequestBody StockUpdateRequest request);
 
+    // inventory-service applies a given Idempotency-Key once and replays its answer to a retry
+    @PostMapping("/inventory/product/{productId}/add-stock")
+    InventoryResponse addStock(
+            @PathVariable Long productId,
+            @RequestHeader("Idempotency-Key") String idempotencyKey,
+            @RequestBody StockUpdateRequest request);
 
+    // Reduces stock for every item of an order in one round trip, returning one result per item
+    @PostMapping("/inventory/reduce-stock/batch")
+    List<StockReservationResult> reduceStockBatch(@RequestBody BatchStockUpdateRequest request);
 }
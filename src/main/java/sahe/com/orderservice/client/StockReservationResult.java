@@ -0,0 +1,16 @@
+package sahe.com.orderservice.client;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockReservationResult {
+    private Long productId;
+    private Integer quantity;
+    private Boolean success;
+    private Integer remainingQuantity;
+    private String message;
+}
@@ -0,0 +1,35 @@
+package sahe.com.orderservice.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import sahe.com.orderservice.security.AuthorizationContext;
+
+@Slf4j
+@Configuration
+public class ExecutorConfig {
+
+    // Executor for fanning out blocking Feign calls. Each task runs on its own thread (virtual
+    // when spring.threads.virtual.enabled is set, like Tomcat) and carries the caller's
+    // Authorization header, so FeignConfig can still forward the JWT.
+    @Bean(destroyMethod = "close")
+    public SimpleAsyncTaskExecutor remoteCallExecutor(
+            Environment environment,
+            @Value("${remote-call.platform-concurrency-limit:200}") int platformConcurrencyLimit) {
+        boolean virtual = Threading.VIRTUAL.isActive(environment);
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("remote-call-");
+        executor.setVirtualThreads(virtual);
+        if (!virtual) {
+            // Platform threads are not free: cap them, further submissions wait for a slot
+            executor.setConcurrencyLimit(platformConcurrencyLimit);
+        }
+        executor.setTaskTerminationTimeout(5_000);
+        executor.setTaskDecorator(AuthorizationContext::capture);
+        log.info("Remote calls run on {} threads", virtual ? "virtual" : "platform");
+        return executor;
+    }
+}
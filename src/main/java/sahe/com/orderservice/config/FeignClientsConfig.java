@@ -0,0 +1,13 @@
+package sahe.com.orderservice.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.openfeign.EnableFeignClients;
+import org.springframework.context.annotation.Configuration;
+import sahe.com.orderservice.client.ProductClient;
+
+// Kept off the application class so test slices (@DataJpaTest, ...) don't try to build Feign clients
+@Configuration
+@EnableFeignClients(basePackageClasses = ProductClient.class, defaultConfiguration = FeignConfig.class)
+@EnableConfigurationProperties(ResilienceProperties.class)
+public class FeignClientsConfig {
+}
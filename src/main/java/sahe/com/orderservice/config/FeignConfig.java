@@ -1,27 +1,35 @@
 package sahe.com.orderservice.config;
 
+import feign.Capability;
 import feign.RequestInterceptor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.web.context.request.RequestContextHolder;
-import org.springframework.web.context.request.ServletRequestAttributes;
+import sahe.com.orderservice.client.DownstreamGuards;
+import sahe.com.orderservice.client.DownstreamGuardsCapability;
+import sahe.com.orderservice.security.AuthorizationContext;
+import sahe.com.orderservice.security.ServiceCredentials;
 
 @Configuration
 public class FeignConfig {
 
     @Bean
-    public RequestInterceptor requestInterceptor() {
+    public RequestInterceptor requestInterceptor(ServiceCredentials serviceCredentials) {
+        // Works on the request thread and on remoteCallExecutor workers alike; with no caller
+        // to forward (scheduled work) the call goes out with the service's own token
         return requestTemplate -> {
-            ServletRequestAttributes attributes = (ServletRequestAttributes)
-                    RequestContextHolder.getRequestAttributes();
-            if (attributes != null) {
-                String authHeader = attributes.getRequest()
-                        .getHeader("Authorization");
-                if (authHeader != null) {
-                    requestTemplate.header("Authorization", authHeader);
-                }
+            String authHeader = AuthorizationContext.currentHeader();
+            if (authHeader == null) {
+                authHeader = serviceCredentials.authorizationHeader();
+            }
+            if (authHeader != null) {
+                requestTemplate.header("Authorization", authHeader);
             }
         };
     }
-}
 
+    // Timeouts, bulkhead and circuit breaker around every call of every client
+    @Bean
+    public Capability downstreamGuardsCapability(DownstreamGuards downstreamGuards) {
+        return new DownstreamGuardsCapability(downstreamGuards);
+    }
+}
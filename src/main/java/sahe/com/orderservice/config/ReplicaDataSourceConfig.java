@@ -0,0 +1,62 @@
+package sahe.com.orderservice.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import sahe.com.orderservice.service.ReadYourWritesGuard;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+// Opt-in (order.replicas.enabled): read-only transactions read from the replica pools. The
+// lazy proxy takes the physical connection at the first statement, after the transaction has
+// marked it read-only, so the choice follows @Transactional(readOnly = true)
+@Configuration
+@ConditionalOnProperty(name = "order.replicas.enabled", havingValue = "true")
+@EnableConfigurationProperties(ReplicaProperties.class)
+public class ReplicaDataSourceConfig {
+
+    // The spring.datasource pool, as Boot would build it without this configuration
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaDataSource(HikariDataSource primaryDataSource, ReplicaProperties properties,
+                                                      ReadYourWritesGuard readYourWritesGuard,
+                                                      MeterRegistry meterRegistry) {
+        List<ReplicaRoutingDataSource.Replica> replicas = new ArrayList<>();
+        for (ReplicaProperties.Replica pool : properties.getPools()) {
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setPoolName("replica-" + pool.getName());
+            dataSource.setJdbcUrl(pool.getUrl());
+            dataSource.setUsername(pool.getUsername());
+            dataSource.setPassword(pool.getPassword());
+            dataSource.setMaximumPoolSize(pool.getMaximumPoolSize());
+            dataSource.setReadOnly(true);
+            // Do not fail startup on a replica that is down; the health check keeps it out of reads
+            dataSource.setInitializationFailTimeout(-1);
+            replicas.add(new ReplicaRoutingDataSource.Replica(pool.getName(), dataSource));
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, readYourWritesGuard,
+                properties.getMaxLag(), properties.getLagQuery(), properties.getCheckTimeout(), meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaRoutingDataSource replicaDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(replicaDataSource);
+        return dataSource;
+    }
+}
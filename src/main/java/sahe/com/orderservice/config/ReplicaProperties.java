@@ -0,0 +1,44 @@
+package sahe.com.orderservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read replicas for read-only transactions ({@code order.replicas.*}), used when
+ * {@code enabled} is set. A replica serves reads only while its health check answers and
+ * reports a lag of at most {@code maxLag}.
+ */
+@Data
+@ConfigurationProperties(prefix = "order.replicas")
+public class ReplicaProperties {
+
+    private boolean enabled;
+
+    private Duration maxLag = Duration.ofSeconds(5);
+
+    // Must return the replication lag in seconds (0 on a caught-up replica)
+    private String lagQuery = "select case when pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0 "
+            + "else extract(epoch from now() - pg_last_xact_replay_timestamp()) end";
+
+    // Delay between health checks (read by ReplicaRoutingDataSource.checkReplicas)
+    private Duration healthCheckInterval = Duration.ofSeconds(5);
+
+    // Statement timeout of the health check; a replica that does not answer in time is unhealthy
+    private Duration checkTimeout = Duration.ofSeconds(2);
+
+    private List<Replica> pools = new ArrayList<>();
+
+    @Data
+    public static class Replica {
+
+        private String name;
+        private String url;
+        private String username;
+        private String password;
+        private int maximumPoolSize = 10;
+    }
+}
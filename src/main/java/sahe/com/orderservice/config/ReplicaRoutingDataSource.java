@@ -0,0 +1,148 @@
+package sahe.com.orderservice.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import sahe.com.orderservice.service.ReadYourWritesGuard;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Connections for read-only transactions (the read-only target of the primary
+ * LazyConnectionDataSourceProxy, see ReplicaDataSourceConfig). Replicas are taken in turn;
+ * one is skipped while its last health check failed or reported more than
+ * {@code order.replicas.max-lag}, and as soon as it refuses a connection. The primary serves
+ * the read when no replica is usable or {@link ReadYourWritesGuard} asks for it.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+
+    public static final String READS = "order.datasource.reads";
+    public static final String REPLICA_LAG = "order.datasource.replica.lag";
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final ReadYourWritesGuard guard;
+    private final double maxLagSeconds;
+    private final String lagQuery;
+    private final int checkTimeoutSeconds;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Counter primaryReads;
+
+    public ReplicaRoutingDataSource(DataSource primary, List<Replica> replicas, ReadYourWritesGuard guard,
+                                    Duration maxLag, String lagQuery, Duration checkTimeout,
+                                    MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.guard = guard;
+        this.maxLagSeconds = maxLag.toMillis() / 1000.0;
+        this.lagQuery = lagQuery;
+        this.checkTimeoutSeconds = (int) Math.max(1, checkTimeout.toSeconds());
+        this.primaryReads = Counter.builder(READS).tag("target", "primary").register(meterRegistry);
+        for (Replica replica : this.replicas) {
+            replica.reads = Counter.builder(READS).tag("target", replica.name).register(meterRegistry);
+            Gauge.builder(REPLICA_LAG, replica, r -> r.lagSeconds)
+                    .tag("replica", replica.name)
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!guard.requiresPrimary()) {
+            for (int i = 0; i < replicas.size(); i++) {
+                Replica replica = replicas.get(Math.floorMod(next.getAndIncrement(), replicas.size()));
+                if (!replica.healthy) {
+                    continue;
+                }
+                try {
+                    Connection connection = replica.dataSource.getConnection();
+                    replica.reads.increment();
+                    return connection;
+                } catch (SQLException e) {
+                    markUnhealthy(replica, e.getMessage());
+                }
+            }
+        }
+        primaryReads.increment();
+        return primary.getConnection();
+    }
+
+    // Explicit credentials belong to the primary's account; replica pools use their own
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        primaryReads.increment();
+        return primary.getConnection(username, password);
+    }
+
+    /** Measures every replica's lag; unreachable or lagging replicas get no reads until the next check. */
+    @Scheduled(fixedDelayString = "${order.replicas.health-check-interval:5s}")
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.setQueryTimeout(checkTimeoutSeconds);
+                try (ResultSet result = statement.executeQuery(lagQuery)) {
+                    result.next();
+                    replica.lagSeconds = result.getDouble(1);
+                }
+            } catch (SQLException e) {
+                replica.lagSeconds = Double.NaN;
+                markUnhealthy(replica, e.getMessage());
+                continue;
+            }
+            if (replica.lagSeconds > maxLagSeconds) {
+                markUnhealthy(replica, "lag " + replica.lagSeconds + "s");
+            } else if (!replica.healthy) {
+                replica.healthy = true;
+                log.info("Replica {} is serving reads again (lag {}s)", replica.name, replica.lagSeconds);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private void markUnhealthy(Replica replica, String reason) {
+        if (replica.healthy) {
+            replica.healthy = false;
+            log.warn("Replica {} taken out of reads: {}", replica.name, reason);
+        }
+    }
+
+    /** One replica pool and its last health check. */
+    public static final class Replica {
+
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean healthy = true;
+        private volatile double lagSeconds;
+        private Counter reads;
+
+        public Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        public boolean isHealthy() {
+            return healthy;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package sahe.com.orderservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Limits applied to every call of a Feign client, keyed by client name
+ * ({@code resilience.clients.inventory-service.*}). Clients without an entry use the defaults.
+ */
+@Data
+@ConfigurationProperties(prefix = "resilience")
+public class ResilienceProperties {
+
+    // Retry-After sent when a bulkhead rejects a call
+    private Duration retryAfter = Duration.ofSeconds(1);
+
+    private Map<String, Policy> clients = new HashMap<>();
+
+    public Policy policyFor(String client) {
+        return clients.getOrDefault(client, new Policy());
+    }
+
+    @Data
+    public static class Policy {
+
+        // Bulkhead: calls running at once, and calls allowed to wait for a slot (and for how long)
+        private int maxConcurrentCalls = 20;
+        private int maxQueueDepth = 20;
+        private Duration maxQueueWait = Duration.ofMillis(500);
+
+        private Duration connectTimeout = Duration.ofSeconds(1);
+        private Duration readTimeout = Duration.ofSeconds(3);
+        // Read timeout per Feign method name, overriding readTimeout
+        private Map<String, Duration> methodTimeouts = new HashMap<>();
+
+        // Circuit breaker over the last slidingWindowSize calls; 5xx responses count as failures
+        private int slidingWindowSize = 20;
+        private int minimumNumberOfCalls = 10;
+        private float failureRateThreshold = 50;
+        private float slowCallRateThreshold = 80;
+        private Duration slowCallDuration = Duration.ofSeconds(2);
+        private Duration waitDurationInOpenState = Duration.ofSeconds(30);
+        private int permittedCallsInHalfOpenState = 3;
+    }
+}
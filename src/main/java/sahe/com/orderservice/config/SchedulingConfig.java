@@ -0,0 +1,10 @@
+package sahe.com.orderservice.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Background jobs (outbox dispatcher)
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,69 @@
+package sahe.com.orderservice.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Counts the SQL statements Hibernate prepares while a request is handled on its thread and
+ * records them in {@value #METER} (tags {@code method}, {@code uri}), so N+1 queries show up
+ * per endpoint. Work handed to other threads (streamed response bodies, async executors) is
+ * not counted. Installed by {@link SqlStatementMetricsConfig} when enabled.
+ */
+@Slf4j
+public class SqlStatementCounter extends OncePerRequestFilter implements StatementInspector {
+
+    public static final String METER = "order.request.sql.statements";
+
+    private static final ThreadLocal<int[]> STATEMENTS = new ThreadLocal<>();
+
+    private final MeterRegistry meterRegistry;
+    private final int warnThreshold;
+
+    public SqlStatementCounter(MeterRegistry meterRegistry, int warnThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.warnThreshold = warnThreshold;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        int[] count = STATEMENTS.get();
+        if (count != null) {
+            count[0]++;
+        }
+        return sql;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        int[] count = new int[1];
+        STATEMENTS.set(count);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            STATEMENTS.remove();
+            // The route pattern, not the raw path, keeps the uri tag low-cardinality
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+            DistributionSummary.builder(METER)
+                    .baseUnit("statements")
+                    .tag("method", request.getMethod())
+                    .tag("uri", uri)
+                    .register(meterRegistry)
+                    .record(count[0]);
+            if (count[0] > warnThreshold) {
+                log.warn("{} {} ran {} SQL statements", request.getMethod(), uri, count[0]);
+            }
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package sahe.com.orderservice.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.hibernate.autoconfigure.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Opt-in (order.metrics.sql-statements.enabled): one extra counter update per statement
+@Configuration
+@ConditionalOnProperty(name = "order.metrics.sql-statements.enabled", havingValue = "true")
+public class SqlStatementMetricsConfig {
+
+    @Bean
+    public SqlStatementCounter sqlStatementCounter(MeterRegistry meterRegistry,
+                                                   @Value("${order.metrics.sql-statements.warn-threshold:50}")
+                                                   int warnThreshold) {
+        return new SqlStatementCounter(meterRegistry, warnThreshold);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer sqlStatementInspector(SqlStatementCounter sqlStatementCounter) {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, sqlStatementCounter);
+    }
+}
@@ -0,0 +1,38 @@
+package sahe.com.orderservice.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import sahe.com.orderservice.service.ProductCatalog;
+
+@RestController
+@RequestMapping("/orders/catalog-cache")
+@RequiredArgsConstructor
+@Slf4j
+public class CatalogCacheController {
+
+    private final ProductCatalog productCatalog;
+
+    // DELETE http://localhost:8085/orders/catalog-cache/1
+    @DeleteMapping("/{productId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Void> invalidateProduct(@PathVariable Long productId) {
+        log.info("DELETE /orders/catalog-cache/{} - Invalidate cached product", productId);
+        productCatalog.invalidate(productId);
+        return ResponseEntity.noContent().build();
+    }
+
+    // DELETE http://localhost:8085/orders/catalog-cache
+    @DeleteMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Void> invalidateAll() {
+        log.info("DELETE /orders/catalog-cache - Invalidate all cached products");
+        productCatalog.invalidateAll();
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,115 @@
+package sahe.com.orderservice.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import sahe.com.orderservice.dto.ProductSales;
+import sahe.com.orderservice.dto.SalesBucket;
+import sahe.com.orderservice.dto.SalesByCountry;
+import sahe.com.orderservice.dto.SalesByStatus;
+import sahe.com.orderservice.model.Order;
+import sahe.com.orderservice.service.OrderAnalyticsService;
+import tools.jackson.databind.ObjectMapper;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+@RestController
+@RequestMapping("/orders/analytics")
+@RequiredArgsConstructor
+@Slf4j
+public class OrderAnalyticsController {
+
+    private final OrderAnalyticsService orderAnalyticsService;
+    private final ObjectMapper objectMapper;
+
+    // GET http://localhost:8085/orders/analytics/sales?from=2025-01-01&to=2025-12-31&granularity=MONTH
+    @GetMapping("/sales")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<SalesBucket>> getSales(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "DAY") OrderAnalyticsService.Granularity granularity,
+            @RequestParam(required = false) Set<Order.OrderStatus> status) {
+        log.info("GET /orders/analytics/sales - {} sales from {} to {}", granularity, from, to);
+        return ResponseEntity.ok(orderAnalyticsService.getSales(from, to, granularity, status));
+    }
+
+    // GET http://localhost:8085/orders/analytics/sales?from=...&to=... (Accept: application/x-ndjson)
+    @GetMapping(value = "/sales", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> streamSales(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "DAY") OrderAnalyticsService.Granularity granularity,
+            @RequestParam(required = false) Set<Order.OrderStatus> status) {
+        log.info("GET /orders/analytics/sales - Stream {} sales from {} to {}", granularity, from, to);
+        return NdjsonResponses.<SalesBucket>stream(objectMapper,
+                consumer -> orderAnalyticsService.streamSales(from, to, granularity, status, consumer));
+    }
+
+    // GET http://localhost:8085/orders/analytics/countries?from=2025-01-01&to=2025-12-31
+    @GetMapping("/countries")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<SalesByCountry>> getSalesByCountry(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Set<Order.OrderStatus> status) {
+        log.info("GET /orders/analytics/countries - Sales by country from {} to {}", from, to);
+        return ResponseEntity.ok(orderAnalyticsService.getSalesByCountry(from, to, status));
+    }
+
+    // GET http://localhost:8085/orders/analytics/statuses?from=2025-01-01&to=2025-12-31
+    @GetMapping("/statuses")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<SalesByStatus>> getSalesByStatus(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Set<Order.OrderStatus> status) {
+        log.info("GET /orders/analytics/statuses - Orders by status from {} to {}", from, to);
+        return ResponseEntity.ok(orderAnalyticsService.getSalesByStatus(from, to, status));
+    }
+
+    // GET http://localhost:8085/orders/analytics/products?from=2025-01-01&to=2025-12-31&limit=10
+    @GetMapping("/products")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<ProductSales>> getTopProducts(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(required = false) Set<Order.OrderStatus> status) {
+        log.info("GET /orders/analytics/products - Top {} products from {} to {}", limit, from, to);
+        return ResponseEntity.ok(orderAnalyticsService.getTopProducts(from, to, limit, status));
+    }
+
+    // GET http://localhost:8085/orders/analytics/products?from=...&to=... (Accept: application/x-ndjson)
+    @GetMapping(value = "/products", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> streamProducts(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Set<Order.OrderStatus> status) {
+        log.info("GET /orders/analytics/products - Stream product sales from {} to {}", from, to);
+        return NdjsonResponses.<ProductSales>stream(objectMapper,
+                consumer -> orderAnalyticsService.streamProducts(from, to, status, consumer));
+    }
+
+    // DELETE http://localhost:8085/orders/analytics/cache
+    @DeleteMapping("/cache")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Void> invalidateCache() {
+        log.info("DELETE /orders/analytics/cache - Invalidate cached analytics");
+        orderAnalyticsService.invalidateAll();
+        return ResponseEntity.noContent().build();
+    }
+}
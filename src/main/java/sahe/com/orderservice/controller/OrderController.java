@@ -4,14 +4,24 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import sahe.com.orderservice.dto.BulkStatusUpdateRequest;
+import sahe.com.orderservice.dto.BulkStatusUpdateResponse;
+import sahe.com.orderservice.dto.OrderFields;
+import sahe.com.orderservice.dto.OrderPage;
 import sahe.com.orderservice.dto.OrderRequest;
 import sahe.com.orderservice.dto.OrderResponse;
 import sahe.com.orderservice.dto.OrderStatusUpdateRequest;
 import sahe.com.orderservice.model.Order;
+import sahe.com.orderservice.service.IdempotencyService;
+import sahe.com.orderservice.service.OrderReadCache;
 import sahe.com.orderservice.service.OrderService;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.ObjectMapper;
 
 import java.util.List;
 
@@ -22,49 +32,126 @@ import java.util.List;
 public class OrderController {
 
     private final OrderService orderService;
+    private final IdempotencyService idempotencyService;
+    private final ObjectMapper objectMapper;
+    private final OrderReadCache orderReadCache;
 
-    // GET http://localhost:8085/orders
+    // GET http://localhost:8085/orders (?view=summary or ?fields=id,status,totalAmount)
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<OrderResponse>> getAllOrders() {
+    public ResponseEntity<?> getAllOrders(
+            @RequestParam(required = false) String view,
+            @RequestParam(required = false) String fields) {
         log.info("GET /orders - Get all orders");
-        List<OrderResponse> orders = orderService.getAllOrders();
-        return ResponseEntity.ok(orders);
+        OrderFields selection = OrderFields.of(view, fields);
+        return list(orderService.getAllOrders(selection), selection);
+    }
+
+    // GET http://localhost:8085/orders?size=50&cursor=...
+    @GetMapping(params = "size")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<OrderPage> getOrdersPage(
+            @RequestParam int size,
+            @RequestParam(required = false) String cursor) {
+        log.info("GET /orders?size={} - Get orders page", size);
+        return ResponseEntity.ok(orderService.getOrdersPage(cursor, size));
+    }
+
+    // GET http://localhost:8085/orders (Accept: application/x-ndjson)
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> streamAllOrders() {
+        log.info("GET /orders - Stream all orders");
+        return NdjsonResponses.<OrderResponse>stream(objectMapper, orderService::streamAllOrders);
     }
 
     // GET http://localhost:8085/orders/1
+    // Served from OrderReadCache; a matching If-None-Match gets 304 without a body
     @GetMapping("/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'SELLER', 'CLIENT')")
-    public ResponseEntity<OrderResponse> getOrderById(@PathVariable Long id) {
+    public ResponseEntity<byte[]> getOrderById(@PathVariable Long id) {
         log.info("GET /orders/{} - Get order by id", id);
-        OrderResponse order = orderService.getOrderById(id);
-        return ResponseEntity.ok(order);
+        OrderReadCache.CachedOrder order = orderReadCache.get(id, () -> orderService.getOrderById(id));
+        return ResponseEntity.ok()
+                .eTag(order.etag())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(order.body());
     }
 
-    // GET http://localhost:8085/orders/user/1
+    // GET http://localhost:8085/orders/user/1 (?view=summary or ?fields=id,status,totalAmount)
     @GetMapping("/user/{userId}")
     @PreAuthorize("hasAnyRole('ADMIN', 'CLIENT')")
-    public ResponseEntity<List<OrderResponse>> getOrdersByUserId(@PathVariable Long userId) {
+    public ResponseEntity<?> getOrdersByUserId(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String view,
+            @RequestParam(required = false) String fields) {
         log.info("GET /orders/user/{} - Get orders by user id", userId);
-        List<OrderResponse> orders = orderService.getOrdersByUserId(userId);
-        return ResponseEntity.ok(orders);
+        OrderFields selection = OrderFields.of(view, fields);
+        return list(orderService.getOrdersByUserId(userId, selection), selection);
+    }
+
+    // GET http://localhost:8085/orders/user/1?size=50&cursor=...
+    @GetMapping(value = "/user/{userId}", params = "size")
+    @PreAuthorize("hasAnyRole('ADMIN', 'CLIENT')")
+    public ResponseEntity<OrderPage> getOrdersPageByUserId(
+            @PathVariable Long userId,
+            @RequestParam int size,
+            @RequestParam(required = false) String cursor) {
+        log.info("GET /orders/user/{}?size={} - Get orders page by user id", userId, size);
+        return ResponseEntity.ok(orderService.getOrdersPageByUserId(userId, cursor, size));
+    }
+
+    // GET http://localhost:8085/orders/user/1 (Accept: application/x-ndjson)
+    @GetMapping(value = "/user/{userId}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasAnyRole('ADMIN', 'CLIENT')")
+    public ResponseEntity<StreamingResponseBody> streamOrdersByUserId(@PathVariable Long userId) {
+        log.info("GET /orders/user/{} - Stream orders by user id", userId);
+        return NdjsonResponses.<OrderResponse>stream(objectMapper,
+                consumer -> orderService.streamOrdersByUserId(userId, consumer));
     }
 
-    // GET http://localhost:8085/orders/status/PENDING
+    // GET http://localhost:8085/orders/status/PENDING (?view=summary or ?fields=id,status,totalAmount)
     @GetMapping("/status/{status}")
     @PreAuthorize("hasAnyRole('ADMIN', 'SELLER')")
-    public ResponseEntity<List<OrderResponse>> getOrdersByStatus(@PathVariable Order.OrderStatus status) {
+    public ResponseEntity<?> getOrdersByStatus(
+            @PathVariable Order.OrderStatus status,
+            @RequestParam(required = false) String view,
+            @RequestParam(required = false) String fields) {
         log.info("GET /orders/status/{} - Get orders by status", status);
-        List<OrderResponse> orders = orderService.getOrdersByStatus(status);
-        return ResponseEntity.ok(orders);
+        OrderFields selection = OrderFields.of(view, fields);
+        return list(orderService.getOrdersByStatus(status, selection), selection);
+    }
+
+    // GET http://localhost:8085/orders/status/PENDING?size=50&cursor=...
+    @GetMapping(value = "/status/{status}", params = "size")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SELLER')")
+    public ResponseEntity<OrderPage> getOrdersPageByStatus(
+            @PathVariable Order.OrderStatus status,
+            @RequestParam int size,
+            @RequestParam(required = false) String cursor) {
+        log.info("GET /orders/status/{}?size={} - Get orders page by status", status, size);
+        return ResponseEntity.ok(orderService.getOrdersPageByStatus(status, cursor, size));
+    }
+
+    // GET http://localhost:8085/orders/status/PENDING (Accept: application/x-ndjson)
+    @GetMapping(value = "/status/{status}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasAnyRole('ADMIN', 'SELLER')")
+    public ResponseEntity<StreamingResponseBody> streamOrdersByStatus(@PathVariable Order.OrderStatus status) {
+        log.info("GET /orders/status/{} - Stream orders by status", status);
+        return NdjsonResponses.<OrderResponse>stream(objectMapper,
+                consumer -> orderService.streamOrdersByStatus(status, consumer));
     }
 
     // POST http://localhost:8085/orders
     @PostMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'CLIENT')")
-    public ResponseEntity<OrderResponse> createOrder(@Valid @RequestBody OrderRequest request) {
+    public ResponseEntity<OrderResponse> createOrder(
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @Valid @RequestBody OrderRequest request) {
         log.info("POST /orders - Create order for user: {}", request.getUserId());
-        OrderResponse createdOrder = orderService.createOrder(request);
+        OrderResponse createdOrder = idempotencyKey == null
+                ? orderService.createOrder(request)
+                : idempotencyService.execute(idempotencyKey, request, () -> orderService.createOrder(request));
         return ResponseEntity.status(HttpStatus.CREATED).body(createdOrder);
     }
 
@@ -79,6 +166,15 @@ public class OrderController {
         return ResponseEntity.ok(updatedOrder);
     }
 
+    // POST http://localhost:8085/orders/status:bulk
+    @PostMapping("/status:bulk")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SELLER')")
+    public ResponseEntity<BulkStatusUpdateResponse> bulkUpdateStatus(
+            @Valid @RequestBody BulkStatusUpdateRequest request) {
+        log.info("POST /orders/status:bulk - Update {} orders to: {}", request.getIds().size(), request.getStatus());
+        return ResponseEntity.ok(orderService.bulkUpdateStatus(request));
+    }
+
     // PATCH http://localhost:8085/orders/1/cancel
     @PatchMapping("/{id}/cancel")
     @PreAuthorize("hasAnyRole('ADMIN', 'CLIENT')")
@@ -96,4 +192,23 @@ public class OrderController {
         orderService.deleteOrder(id);
         return ResponseEntity.noContent().build();
     }
+
+    // Full responses go through the regular converter; a fieldset writes only its properties
+    private ResponseEntity<?> list(List<OrderResponse> orders, OrderFields fields) {
+        if (fields.isAll()) {
+            return ResponseEntity.ok(orders);
+        }
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+                generator.writeStartArray();
+                for (OrderResponse order : orders) {
+                    fields.write(generator, order);
+                }
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
 }
@@ -0,0 +1,39 @@
+package sahe.com.orderservice.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import sahe.com.orderservice.dto.UserOrderSummaryResponse;
+import sahe.com.orderservice.service.UserOrderSummaryService;
+
+@RestController
+@RequestMapping("/orders/user/{userId}/summary")
+@RequiredArgsConstructor
+@Slf4j
+public class UserOrderSummaryController {
+
+    private final UserOrderSummaryService userOrderSummaryService;
+
+    // GET http://localhost:8085/orders/user/1/summary
+    @GetMapping
+    @PreAuthorize("hasAnyRole('ADMIN', 'CLIENT')")
+    public ResponseEntity<UserOrderSummaryResponse> getSummary(@PathVariable Long userId) {
+        log.info("GET /orders/user/{}/summary - Get order summary", userId);
+        return ResponseEntity.ok(userOrderSummaryService.getSummary(userId));
+    }
+
+    // POST http://localhost:8085/orders/user/1/summary/rebuild
+    @PostMapping("/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<UserOrderSummaryResponse> rebuild(@PathVariable Long userId) {
+        log.info("POST /orders/user/{}/summary/rebuild - Rebuild order summary", userId);
+        userOrderSummaryService.rebuild(userId);
+        return ResponseEntity.ok(userOrderSummaryService.getSummary(userId));
+    }
+}
@@ -0,0 +1,22 @@
+package sahe.com.orderservice.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+import sahe.com.orderservice.model.Order;
+
+import java.util.List;
+
+@Data
+public class BulkStatusUpdateRequest {
+
+    public static final int MAX_IDS = 50_000;
+
+    @NotEmpty(message = "Order ids required")
+    @Size(max = MAX_IDS, message = "At most " + MAX_IDS + " orders per request")
+    private List<@NotNull Long> ids;
+
+    @NotNull(message = "Status required")
+    private Order.OrderStatus status;
+}
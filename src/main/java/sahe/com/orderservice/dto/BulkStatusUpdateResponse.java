@@ -0,0 +1,17 @@
+package sahe.com.orderservice.dto;
+
+import sahe.com.orderservice.model.Order;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome of a bulk status change, grouped instead of one object per order: the ids that
+ * moved to {@code status}, the ids that do not exist, and the rejected ids keyed by the status
+ * they are in (which does not allow the transition).
+ */
+public record BulkStatusUpdateResponse(Order.OrderStatus status,
+                                       List<Long> updated,
+                                       List<Long> notFound,
+                                       Map<Order.OrderStatus, List<Long>> rejected) {
+}
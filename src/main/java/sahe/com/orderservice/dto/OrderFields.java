@@ -0,0 +1,113 @@
+package sahe.com.orderservice.dto;
+
+import tools.jackson.core.JsonGenerator;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * The properties of {@link OrderResponse} a list request asked for, from {@code ?view=summary}
+ * or {@code ?fields=id,status,totalAmount}. Decides the projection that is read (the summary
+ * one when every field is among its columns, items only when requested) and writes just
+ * those properties, in the order they were given.
+ */
+public final class OrderFields {
+
+    private static final Map<String, Function<OrderResponse, Object>> PROPERTIES = new LinkedHashMap<>();
+
+    static {
+        PROPERTIES.put("id", OrderResponse::getId);
+        PROPERTIES.put("userId", OrderResponse::getUserId);
+        PROPERTIES.put("status", OrderResponse::getStatus);
+        PROPERTIES.put("totalAmount", OrderResponse::getTotalAmount);
+        PROPERTIES.put("shippingAddress", OrderResponse::getShippingAddress);
+        PROPERTIES.put("shippingCity", OrderResponse::getShippingCity);
+        PROPERTIES.put("shippingCountry", OrderResponse::getShippingCountry);
+        PROPERTIES.put("paymentMethod", OrderResponse::getPaymentMethod);
+        PROPERTIES.put("notes", OrderResponse::getNotes);
+        PROPERTIES.put("items", OrderResponse::getItems);
+        PROPERTIES.put("createdAt", OrderResponse::getCreatedAt);
+        PROPERTIES.put("updatedAt", OrderResponse::getUpdatedAt);
+    }
+
+    // The columns of OrderRepository.SELECT_SUMMARY
+    private static final Set<String> SUMMARY_COLUMNS =
+            Set.of("id", "userId", "status", "totalAmount", "createdAt", "updatedAt");
+
+    /** Every property, serialized as a plain OrderResponse. */
+    public static final OrderFields ALL = new OrderFields(List.copyOf(PROPERTIES.keySet()));
+
+    public static final OrderFields SUMMARY =
+            new OrderFields(List.of("id", "userId", "status", "totalAmount", "createdAt", "updatedAt"));
+
+    private final List<String> names;
+    private final List<Function<OrderResponse, Object>> accessors;
+
+    private OrderFields(List<String> names) {
+        this.names = names;
+        this.accessors = names.stream().map(PROPERTIES::get).toList();
+    }
+
+    public static OrderFields of(String view, String fields) {
+        if (view != null && fields != null) {
+            throw new RuntimeException("Use either view or fields, not both");
+        }
+        if (view != null) {
+            if (!"summary".equals(view)) {
+                throw new RuntimeException("Unknown view: " + view + " (expected summary)");
+            }
+            return SUMMARY;
+        }
+        if (fields == null) {
+            return ALL;
+        }
+        List<String> names = new ArrayList<>();
+        for (String name : fields.split(",")) {
+            name = name.trim();
+            if (!PROPERTIES.containsKey(name)) {
+                throw new RuntimeException("Unknown order field: " + name + " (expected any of "
+                        + String.join(", ", PROPERTIES.keySet()) + ")");
+            }
+            if (!names.contains(name)) {
+                names.add(name);
+            }
+        }
+        return new OrderFields(List.copyOf(names));
+    }
+
+    public boolean isAll() {
+        return names.size() == PROPERTIES.size();
+    }
+
+    public boolean includesItems() {
+        return names.contains("items");
+    }
+
+    /** Whether the item-less summary projection has every requested column. */
+    public boolean fitsSummary() {
+        return SUMMARY_COLUMNS.containsAll(names);
+    }
+
+    public List<String> names() {
+        return names;
+    }
+
+    /** Writes one order as an object of the selected properties only. */
+    public void write(JsonGenerator generator, OrderResponse order) {
+        generator.writeStartObject();
+        for (int i = 0; i < names.size(); i++) {
+            generator.writeName(names.get(i));
+            Object value = accessors.get(i).apply(order);
+            if (value == null) {
+                generator.writeNull();
+            } else {
+                generator.writePOJO(value);
+            }
+        }
+        generator.writeEndObject();
+    }
+}
@@ -0,0 +1,14 @@
+package sahe.com.orderservice.dto;
+
+import sahe.com.orderservice.model.Order;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/** The few fields of an order a summary shows, without address or lines. */
+public record OrderHeader(Long id, Order.OrderStatus status, BigDecimal totalAmount, LocalDateTime createdAt) {
+
+    public OrderHeader withStatus(Order.OrderStatus status) {
+        return new OrderHeader(id, status, totalAmount, createdAt);
+    }
+}
@@ -0,0 +1,15 @@
+package sahe.com.orderservice.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * An order line read straight into its response DTO, tagged with the order it belongs to so
+ * the lines of several orders can be fetched with one query.
+ */
+public record OrderItemRow(Long orderId, OrderItemResponse item) {
+
+    public OrderItemRow(Long orderId, Long id, Long productId, String productName, Integer quantity,
+                        BigDecimal unitPrice, BigDecimal subtotal) {
+        this(orderId, new OrderItemResponse(id, productId, productName, quantity, unitPrice, subtotal));
+    }
+}
@@ -0,0 +1,20 @@
+package sahe.com.orderservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated order list. {@code nextCursor} is passed back as the
+ * {@code cursor} parameter to get the following page and is null on the last page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderPage {
+
+    private List<OrderResponse> content;
+    private String nextCursor;
+}
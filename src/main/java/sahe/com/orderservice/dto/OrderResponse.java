@@ -1,5 +1,6 @@
 package sahe.com.orderservice.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -7,6 +8,7 @@ import sahe.com.orderservice.model.Order;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -28,6 +30,25 @@ public class OrderResponse {
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
+    // Entity version: the ETag of GET /orders/{id}, not part of the body
+    @JsonIgnore
+    private Long version;
+
+    // Used by the read projections in OrderRepository; items are attached afterwards
+    public OrderResponse(Long id, Long userId, Order.OrderStatus status, BigDecimal totalAmount,
+                         String shippingAddress, String shippingCity, String shippingCountry,
+                         String paymentMethod, String notes, LocalDateTime createdAt, LocalDateTime updatedAt,
+                         Long version) {
+        this(id, userId, status, totalAmount, shippingAddress, shippingCity, shippingCountry,
+                paymentMethod, notes, new ArrayList<>(), createdAt, updatedAt, version);
+    }
+
+    // Used by the item-less summary projection (OrderFields.SUMMARY); address, notes and items stay null
+    public OrderResponse(Long id, Long userId, Order.OrderStatus status, BigDecimal totalAmount,
+                         LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this(id, userId, status, totalAmount, null, null, null, null, null, null, createdAt, updatedAt, null);
+    }
+
     public OrderResponse(Order order) {
         this.id = order.getId();
         this.userId = order.getUserId();
@@ -43,5 +64,6 @@ public class OrderResponse {
                 .collect(Collectors.toList());
         this.createdAt = order.getCreatedAt();
         this.updatedAt = order.getUpdatedAt();
+        this.version = order.getVersion();
     }
 }
@@ -0,0 +1,18 @@
+package sahe.com.orderservice.dto;
+
+import sahe.com.orderservice.model.Order;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Status of an order plus what its owner's summary needs, all a bulk status change reads
+ * per order.
+ */
+public record OrderStatusRow(Long id, Long userId, Order.OrderStatus status, BigDecimal totalAmount,
+                             LocalDateTime createdAt) {
+
+    public OrderHeader header(Order.OrderStatus status) {
+        return new OrderHeader(id, status, totalAmount, createdAt);
+    }
+}
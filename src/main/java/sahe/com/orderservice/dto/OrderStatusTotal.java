@@ -0,0 +1,9 @@
+package sahe.com.orderservice.dto;
+
+import sahe.com.orderservice.model.Order;
+
+import java.math.BigDecimal;
+
+/** Number and total amount of one user's orders in one status, aggregated from orders. */
+public record OrderStatusTotal(Long userId, Order.OrderStatus status, Long count, BigDecimal total) {
+}
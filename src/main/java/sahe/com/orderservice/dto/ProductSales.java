@@ -0,0 +1,6 @@
+package sahe.com.orderservice.dto;
+
+import java.math.BigDecimal;
+
+public record ProductSales(Long productId, String productName, Long quantity, BigDecimal revenue) {
+}
@@ -0,0 +1,13 @@
+package sahe.com.orderservice.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/** Orders and revenue of one time bucket; {@code period} is the first day of the bucket. */
+public record SalesBucket(LocalDate period, Long orders, BigDecimal revenue) {
+
+    // Filled by the analytics queries from the extracted date parts of the group
+    public SalesBucket(Integer year, Integer month, Integer day, Long orders, BigDecimal revenue) {
+        this(LocalDate.of(year, month, day), orders, revenue);
+    }
+}
@@ -0,0 +1,6 @@
+package sahe.com.orderservice.dto;
+
+import java.math.BigDecimal;
+
+public record SalesByCountry(String country, Long orders, BigDecimal revenue) {
+}
@@ -0,0 +1,8 @@
+package sahe.com.orderservice.dto;
+
+import sahe.com.orderservice.model.Order;
+
+import java.math.BigDecimal;
+
+public record SalesByStatus(Order.OrderStatus status, Long orders, BigDecimal amount) {
+}
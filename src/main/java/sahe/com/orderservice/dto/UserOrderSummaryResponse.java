@@ -0,0 +1,16 @@
+package sahe.com.orderservice.dto;
+
+import sahe.com.orderservice.model.Order;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+public record UserOrderSummaryResponse(Long userId,
+                                       Map<Order.OrderStatus, Long> counts,
+                                       long totalOrders,
+                                       BigDecimal lifetimeSpend,
+                                       List<OrderHeader> recentOrders,
+                                       LocalDateTime updatedAt) {
+}
@@ -0,0 +1,29 @@
+package sahe.com.orderservice.exception;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * A call to another service was not attempted because its bulkhead is full or its circuit
+ * breaker is open, or it got no response (connect or read timeout, I/O error). Reported as 503
+ * with a Retry-After hint.
+ */
+@Getter
+public class DownstreamUnavailableException extends RuntimeException {
+
+    private final String service;
+    private final Duration retryAfter;
+
+    public DownstreamUnavailableException(String service, String reason, Duration retryAfter) {
+        super(service + " is unavailable: " + reason);
+        this.service = service;
+        this.retryAfter = retryAfter;
+    }
+
+    public DownstreamUnavailableException(String service, String reason, Duration retryAfter, Throwable cause) {
+        super(service + " is unavailable: " + reason, cause);
+        this.service = service;
+        this.retryAfter = retryAfter;
+    }
+}
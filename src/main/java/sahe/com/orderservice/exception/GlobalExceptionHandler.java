@@ -1,5 +1,7 @@
 package sahe.com.orderservice.exception;
 
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -33,6 +35,41 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest().body(errors);
     }
 
+    @ExceptionHandler(DownstreamUnavailableException.class)
+    public ResponseEntity<Map<String, String>> handleDownstreamUnavailableException(DownstreamUnavailableException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "Service temporarily unavailable");
+        error.put("message", ex.getMessage());
+        long retryAfterSeconds = Math.max(1, (ex.getRetryAfter().toMillis() + 999) / 1000);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(error);
+    }
+
+    // Rejected lines are the caller's problem; lines inventory-service did not answer are not
+    @ExceptionHandler(StockReservationException.class)
+    public ResponseEntity<Map<String, String>> handleStockReservationException(StockReservationException ex) {
+        if (ex.getCause() instanceof DownstreamUnavailableException unavailable) {
+            return handleDownstreamUnavailableException(unavailable);
+        }
+        return handleRuntimeException(ex);
+    }
+
+    @ExceptionHandler({OrderConflictException.class, OptimisticLockingFailureException.class})
+    public ResponseEntity<Map<String, String>> handleConflict(RuntimeException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", ex instanceof OrderConflictException
+                ? ex.getMessage() : "The order was modified concurrently, please retry");
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+    }
+
+    @ExceptionHandler(IdempotencyKeyException.class)
+    public ResponseEntity<Map<String, String>> handleIdempotencyKeyException(IdempotencyKeyException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", ex.getMessage());
+        return ResponseEntity.status(ex.getStatus()).body(error);
+    }
+
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<Map<String, String>> handleRuntimeException(RuntimeException ex) {
         Map<String, String> error = new HashMap<>();
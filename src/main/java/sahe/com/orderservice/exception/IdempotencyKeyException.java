@@ -0,0 +1,19 @@
+package sahe.com.orderservice.exception;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+/**
+ * An Idempotency-Key that cannot be honoured: reused with a different request body (422) or
+ * still being processed by another instance (409).
+ */
+@Getter
+public class IdempotencyKeyException extends RuntimeException {
+
+    private final HttpStatus status;
+
+    public IdempotencyKeyException(HttpStatus status, String message) {
+        super(message);
+        this.status = status;
+    }
+}
@@ -0,0 +1,45 @@
+package sahe.com.orderservice.exception;
+
+import lombok.Getter;
+import sahe.com.orderservice.model.Order;
+
+/**
+ * A status change the order lifecycle does not allow. Rejections are an expected outcome
+ * (conflicting updates, bulk requests), so one instance per transition is built up front
+ * without a stack trace and reused: throwing it allocates nothing.
+ */
+@Getter
+public class InvalidStatusTransitionException extends RuntimeException {
+
+    private static final Order.OrderStatus[] STATUSES = Order.OrderStatus.values();
+    private static final InvalidStatusTransitionException[][] INSTANCES =
+            new InvalidStatusTransitionException[STATUSES.length][STATUSES.length];
+
+    static {
+        for (Order.OrderStatus from : STATUSES) {
+            for (Order.OrderStatus to : STATUSES) {
+                INSTANCES[from.ordinal()][to.ordinal()] = new InvalidStatusTransitionException(from, to);
+            }
+        }
+    }
+
+    private final Order.OrderStatus from;
+    private final Order.OrderStatus to;
+
+    private InvalidStatusTransitionException(Order.OrderStatus from, Order.OrderStatus to) {
+        super(message(from, to), null, false, false);
+        this.from = from;
+        this.to = to;
+    }
+
+    public static InvalidStatusTransitionException of(Order.OrderStatus from, Order.OrderStatus to) {
+        return INSTANCES[from.ordinal()][to.ordinal()];
+    }
+
+    private static String message(Order.OrderStatus from, Order.OrderStatus to) {
+        if (from.isFinal()) {
+            return "The status of a " + from.name().toLowerCase() + " order cannot be changed.";
+        }
+        return "Invalid state transition from " + from + " to " + to;
+    }
+}
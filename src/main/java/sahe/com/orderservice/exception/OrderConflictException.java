@@ -0,0 +1,12 @@
+package sahe.com.orderservice.exception;
+
+/**
+ * An order kept changing under a status update until the retries ran out. Reported as 409;
+ * the client should read the order again before retrying.
+ */
+public class OrderConflictException extends RuntimeException {
+
+    public OrderConflictException(Long orderId) {
+        super("Order " + orderId + " was modified concurrently, please retry");
+    }
+}
@@ -0,0 +1,28 @@
+package sahe.com.orderservice.exception;
+
+import lombok.Getter;
+import sahe.com.orderservice.client.StockReservationResult;
+
+import java.util.List;
+
+/**
+ * Thrown when inventory-service rejects at least one line of an order, or does not answer for
+ * one after others went through (the cause is then a {@link DownstreamUnavailableException}).
+ * Carries the result of every line so callers can tell which reservations went through.
+ */
+@Getter
+public class StockReservationException extends RuntimeException {
+
+    private final List<StockReservationResult> results;
+
+    public StockReservationException(String message, List<StockReservationResult> results) {
+        super(message);
+        this.results = results;
+    }
+
+    public StockReservationException(String message, List<StockReservationResult> results,
+                                     DownstreamUnavailableException cause) {
+        super(message, cause);
+        this.results = results;
+    }
+}
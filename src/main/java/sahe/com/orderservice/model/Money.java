@@ -0,0 +1,77 @@
+package sahe.com.orderservice.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Exact money arithmetic on long minor units (cents) for amounts of scale 2, the scale of every
+ * money column. Results are the BigDecimal the plain BigDecimal operations give, same value and
+ * same scale; {@link #NOT_EXACT} marks an amount of another scale or a result that does not fit
+ * a long, for which callers fall back to BigDecimal.
+ */
+public final class Money {
+
+    public static final int SCALE = 2;
+    public static final long NOT_EXACT = Long.MIN_VALUE;
+
+    // Any unscaled value of up to 18 digits fits a long
+    private static final int MAX_LONG_PRECISION = 18;
+
+    private Money() {
+    }
+
+    public static long toCents(BigDecimal amount) {
+        if (amount == null || amount.scale() != SCALE || amount.precision() > MAX_LONG_PRECISION) {
+            return NOT_EXACT;
+        }
+        return amount.unscaledValue().longValue();
+    }
+
+    public static BigDecimal ofCents(long cents) {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+
+    public static long multiply(long cents, long factor) {
+        if (cents == NOT_EXACT) {
+            return NOT_EXACT;
+        }
+        long product = cents * factor;
+        // The high half of the 128-bit product must be the sign extension of the low half
+        return Math.multiplyHigh(cents, factor) == (product >> 63) ? product : NOT_EXACT;
+    }
+
+    public static long add(long cents, long other) {
+        if (cents == NOT_EXACT || other == NOT_EXACT) {
+            return NOT_EXACT;
+        }
+        long sum = cents + other;
+        return ((cents ^ sum) & (other ^ sum)) < 0 ? NOT_EXACT : sum;
+    }
+
+    /**
+     * Cents of one money field, converted once per BigDecimal instance. Recomputing a field to
+     * the value it already holds returns the held instance, so an unchanged line or order
+     * allocates nothing. Identity checks keep it right whatever writes the field (setters,
+     * Hibernate, refresh).
+     */
+    public static final class CentsCache {
+
+        private BigDecimal amount;
+        private long cents = NOT_EXACT;
+
+        public long of(BigDecimal amount) {
+            if (amount != this.amount) {
+                this.cents = toCents(amount);
+                this.amount = amount;
+            }
+            return cents;
+        }
+
+        public BigDecimal amount(long cents) {
+            if (amount == null || cents != this.cents) {
+                this.amount = ofCents(cents);
+                this.cents = cents;
+            }
+            return amount;
+        }
+    }
+}
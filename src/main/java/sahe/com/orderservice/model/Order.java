@@ -1,16 +1,23 @@
 package sahe.com.orderservice.model;
 
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 @Entity
 @Table(name = "orders")
@@ -20,7 +27,8 @@ import java.util.List;
 public class Order {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "user_id", nullable = false)
@@ -59,12 +67,68 @@ public class Order {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // Optimistic lock: entity updates and the status compare-and-set both bump it
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
+    // Not persisted, not part of equals/hashCode
+    @Getter(AccessLevel.NONE)
+    @ToString.Exclude
+    private final transient Money.CentsCache totalCents = new Money.CentsCache();
+
+    /**
+     * Order lifecycle. The allowed transitions are a bitmask per status (bit n = ordinal n),
+     * filled once when the enum loads, so checking one is a shift and a mask.
+     */
     public enum OrderStatus {
         PENDING,
         CONFIRMED,
         SHIPPED,
         DELIVERED,
-        CANCELLED
+        CANCELLED;
+
+        private static final OrderStatus[] VALUES = values();
+
+        private int next;
+        private Set<OrderStatus> sources;
+
+        static {
+            allow(PENDING, CONFIRMED, CANCELLED);
+            allow(CONFIRMED, SHIPPED, CANCELLED);
+            allow(SHIPPED, DELIVERED);
+            // DELIVERED and CANCELLED are final
+
+            for (OrderStatus target : VALUES) {
+                EnumSet<OrderStatus> from = EnumSet.noneOf(OrderStatus.class);
+                for (OrderStatus source : VALUES) {
+                    if (source.canTransitionTo(target)) {
+                        from.add(source);
+                    }
+                }
+                target.sources = Collections.unmodifiableSet(from);
+            }
+        }
+
+        private static void allow(OrderStatus from, OrderStatus... to) {
+            for (OrderStatus status : to) {
+                from.next |= 1 << status.ordinal();
+            }
+        }
+
+        public boolean canTransitionTo(OrderStatus target) {
+            return (next & (1 << target.ordinal())) != 0;
+        }
+
+        public boolean isFinal() {
+            return next == 0;
+        }
+
+        /** Statuses this one can be reached from, e.g. for {@code where status in :sources}. */
+        public Set<OrderStatus> sources() {
+            return sources;
+        }
     }
 
     public void addItem(OrderItem item) {
@@ -72,9 +136,19 @@ public class Order {
         item.setOrder(this);
     }
 
+    // Adds the line subtotals in cents; any line without an exact cents value (another scale,
+    // overflow) sends the whole sum through BigDecimal, which gives the same result
     public void calculateTotal() {
-        this.totalAmount = items.stream()
-                .map(OrderItem::getSubtotal)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        long cents = 0;
+        for (OrderItem item : items) {
+            cents = Money.add(cents, item.subtotalCents());
+            if (cents == Money.NOT_EXACT) {
+                this.totalAmount = items.stream()
+                        .map(OrderItem::getSubtotal)
+                        .reduce(BigDecimal.ZERO, BigDecimal::add);
+                return;
+            }
+        }
+        this.totalAmount = items.isEmpty() ? BigDecimal.ZERO : totalCents.amount(cents);
     }
 }
@@ -1,9 +1,12 @@
 package sahe.com.orderservice.model;
 
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.math.BigDecimal;
 
@@ -15,7 +18,8 @@ import java.math.BigDecimal;
 public class OrderItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_items_seq")
+    @SequenceGenerator(name = "order_items_seq", sequenceName = "order_items_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -37,7 +41,25 @@ public class OrderItem {
     @Column(nullable = false, precision = 10, scale = 2)
     private BigDecimal subtotal;
 
+    // Not persisted, not part of equals/hashCode
+    @Getter(AccessLevel.NONE)
+    @ToString.Exclude
+    private final transient Money.CentsCache unitPriceCents = new Money.CentsCache();
+
+    @Getter(AccessLevel.NONE)
+    @ToString.Exclude
+    private final transient Money.CentsCache subtotalCents = new Money.CentsCache();
+
+    // In cents when the price has scale 2 and the product fits a long, else in BigDecimal;
+    // the result is the same either way
     public void calculateSubtotal() {
-        this.subtotal = this.unitPrice.multiply(BigDecimal.valueOf(this.quantity));
+        long cents = Money.multiply(unitPriceCents.of(unitPrice), quantity);
+        this.subtotal = cents != Money.NOT_EXACT
+                ? subtotalCents.amount(cents)
+                : this.unitPrice.multiply(BigDecimal.valueOf(this.quantity));
+    }
+
+    long subtotalCents() {
+        return subtotalCents.of(subtotal);
     }
 }
@@ -0,0 +1,85 @@
+package sahe.com.orderservice.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Read model behind GET /orders/user/{userId}/summary: order counts per status, lifetime spend
+ * (orders not cancelled) and the headers of the latest orders as JSON. Kept up to date in the
+ * transactions that change the user's orders (see UserOrderSummaryService).
+ */
+@Entity
+@Table(name = "user_order_summaries")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserOrderSummary {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "pending_count", nullable = false)
+    private long pendingCount;
+
+    @Column(name = "confirmed_count", nullable = false)
+    private long confirmedCount;
+
+    @Column(name = "shipped_count", nullable = false)
+    private long shippedCount;
+
+    @Column(name = "delivered_count", nullable = false)
+    private long deliveredCount;
+
+    @Column(name = "cancelled_count", nullable = false)
+    private long cancelledCount;
+
+    @Column(name = "lifetime_spend", nullable = false, precision = 14, scale = 2)
+    private BigDecimal lifetimeSpend = BigDecimal.ZERO;
+
+    // Latest order headers, newest first
+    @Column(name = "recent_orders", nullable = false, columnDefinition = "text")
+    private String recentOrders = "[]";
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Version
+    private Long version;
+
+    public UserOrderSummary(Long userId) {
+        this.userId = userId;
+    }
+
+    public long getCount(Order.OrderStatus status) {
+        return switch (status) {
+            case PENDING -> pendingCount;
+            case CONFIRMED -> confirmedCount;
+            case SHIPPED -> shippedCount;
+            case DELIVERED -> deliveredCount;
+            case CANCELLED -> cancelledCount;
+        };
+    }
+
+    public void adjustCount(Order.OrderStatus status, long delta) {
+        switch (status) {
+            case PENDING -> pendingCount += delta;
+            case CONFIRMED -> confirmedCount += delta;
+            case SHIPPED -> shippedCount += delta;
+            case DELIVERED -> deliveredCount += delta;
+            case CANCELLED -> cancelledCount += delta;
+        }
+    }
+
+    public void clearCounts() {
+        for (Order.OrderStatus status : Order.OrderStatus.values()) {
+            adjustCount(status, -getCount(status));
+        }
+        lifetimeSpend = BigDecimal.ZERO;
+    }
+}
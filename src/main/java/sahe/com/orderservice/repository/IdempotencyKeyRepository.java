@@ -0,0 +1,32 @@
+package sahe.com.orderservice.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import sahe.com.orderservice.model.IdempotencyKey;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, String> {
+
+    // Plain insert so a second claim of the same key fails on the primary key instead of merging
+    @Modifying
+    @Query(value = "insert into idempotency_keys (idempotency_key, request_hash, created_at) "
+            + "values (:key, :requestHash, :createdAt)", nativeQuery = true)
+    int claim(@Param("key") String key, @Param("requestHash") String requestHash,
+              @Param("createdAt") LocalDateTime createdAt);
+
+    // Takes over a claim left unfinished by a crashed instance, only if nobody else did first
+    @Modifying
+    @Query("update IdempotencyKey k set k.createdAt = :now "
+            + "where k.key = :key and k.createdAt = :claimedAt and k.response is null")
+    int reclaim(@Param("key") String key, @Param("claimedAt") LocalDateTime claimedAt,
+                @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("update IdempotencyKey k set k.orderId = :orderId, k.response = :response where k.key = :key")
+    int complete(@Param("key") String key, @Param("orderId") Long orderId, @Param("response") String response);
+}
@@ -1,14 +1,60 @@
 package sahe.com.orderservice.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import sahe.com.orderservice.dto.OrderItemRow;
+import sahe.com.orderservice.dto.OrderResponse;
+import sahe.com.orderservice.dto.ProductSales;
+import sahe.com.orderservice.model.Order;
 import sahe.com.orderservice.model.OrderItem;
 
+import java.util.Collection;
+import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 @Repository
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
 
     List<OrderItem> findByOrderId(Long orderId);
     List<OrderItem> findByProductId(Long productId);
+
+    @Query("select new sahe.com.orderservice.dto.OrderItemRow(i.order.id, i.id, i.productId, i.productName, "
+            + "i.quantity, i.unitPrice, i.subtotal) from OrderItem i where i.order.id in :orderIds order by i.id")
+    List<OrderItemRow> findRowsByOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
+
+    // Products ranked by units sold in orders created in [from, to); Limit.unlimited() for all
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new sahe.com.orderservice.dto.ProductSales(i.productId, max(i.productName), sum(i.quantity), "
+            + "sum(i.subtotal)) from OrderItem i join i.order o "
+            + "where o.createdAt >= :from and o.createdAt < :to and o.status in :statuses "
+            + "group by i.productId order by sum(i.quantity) desc, i.productId")
+    Stream<ProductSales> streamTopProducts(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                                           @Param("statuses") Collection<Order.OrderStatus> statuses, Limit limit);
+
+    /**
+     * Fills the items of projected orders with one query per
+     * {@value OrderRepository#ITEM_FETCH_CHUNK} orders. Nothing is loaded as an entity.
+     */
+    default List<OrderResponse> attachItems(List<OrderResponse> orders) {
+        for (int from = 0; from < orders.size(); from += OrderRepository.ITEM_FETCH_CHUNK) {
+            List<OrderResponse> chunk = orders.subList(from, Math.min(from + OrderRepository.ITEM_FETCH_CHUNK, orders.size()));
+            Map<Long, OrderResponse> byId = new HashMap<>(chunk.size() * 2);
+            for (OrderResponse order : chunk) {
+                byId.put(order.getId(), order);
+            }
+            for (OrderItemRow row : findRowsByOrderIdIn(byId.keySet())) {
+                byId.get(row.orderId()).getItems().add(row.item());
+            }
+        }
+        return orders;
+    }
 }
@@ -1,15 +1,201 @@
 package sahe.com.orderservice.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import sahe.com.orderservice.dto.OrderHeader;
+import sahe.com.orderservice.dto.OrderResponse;
+import sahe.com.orderservice.dto.OrderStatusRow;
+import sahe.com.orderservice.dto.OrderStatusTotal;
+import sahe.com.orderservice.dto.SalesBucket;
+import sahe.com.orderservice.dto.SalesByCountry;
+import sahe.com.orderservice.dto.SalesByStatus;
 import sahe.com.orderservice.model.Order;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
 
+    int ITEM_FETCH_CHUNK = 500;
+
+    // Read projection: fills OrderResponse from the columns directly, no managed entity or
+    // dirty-checking snapshot is created. Items are attached by OrderItemRepository.attachItems
+    String SELECT_RESPONSE = "select new sahe.com.orderservice.dto.OrderResponse(o.id, o.userId, o.status, "
+            + "o.totalAmount, o.shippingAddress, o.shippingCity, o.shippingCountry, o.paymentMethod, o.notes, "
+            + "o.createdAt, o.updatedAt, o.version) from Order o ";
+
+    // Item-less projection for ?view=summary and fieldsets within its columns (OrderFields)
+    String SELECT_SUMMARY = "select new sahe.com.orderservice.dto.OrderResponse(o.id, o.userId, o.status, "
+            + "o.totalAmount, o.createdAt, o.updatedAt) from Order o ";
+
     List<Order> findByUserId(Long userId);
     List<Order> findByStatus(Order.OrderStatus status);
     List<Order> findByUserIdAndStatus(Long userId, Order.OrderStatus status);
+
+    @Query(SELECT_RESPONSE + "where o.id = :id")
+    Optional<OrderResponse> findResponseById(@Param("id") Long id);
+
+    @Query(SELECT_RESPONSE + "order by o.id")
+    List<OrderResponse> findAllResponses();
+
+    @Query(SELECT_RESPONSE + "where o.userId = :userId order by o.id")
+    List<OrderResponse> findResponsesByUserId(@Param("userId") Long userId);
+
+    @Query(SELECT_RESPONSE + "where o.status = :status order by o.id")
+    List<OrderResponse> findResponsesByStatus(@Param("status") Order.OrderStatus status);
+
+    @Query(SELECT_SUMMARY + "order by o.id")
+    List<OrderResponse> findAllSummaries();
+
+    @Query(SELECT_SUMMARY + "where o.userId = :userId order by o.id")
+    List<OrderResponse> findSummariesByUserId(@Param("userId") Long userId);
+
+    @Query(SELECT_SUMMARY + "where o.status = :status order by o.id")
+    List<OrderResponse> findSummariesByStatus(@Param("status") Order.OrderStatus status);
+
+    long countByStatus(Order.OrderStatus status);
+
+    @Query("select o.status from Order o where o.id = :id")
+    Optional<Order.OrderStatus> findStatusById(@Param("id") Long id);
+
+    // Compare-and-set: changes the status only while it is still the expected one.
+    // Returns 0 when another update got there first
+    @Modifying
+    @Query("update Order o set o.status = :next, o.version = o.version + 1, o.updatedAt = :now "
+            + "where o.id = :id and o.status = :expected")
+    int compareAndSetStatus(@Param("id") Long id, @Param("expected") Order.OrderStatus expected,
+                            @Param("next") Order.OrderStatus next, @Param("now") LocalDateTime now);
+
+    @Query("select new sahe.com.orderservice.dto.OrderStatusRow(o.id, o.userId, o.status, o.totalAmount, o.createdAt) "
+            + "from Order o where o.id in :ids")
+    List<OrderStatusRow> findStatusesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Set-based compare-and-set for a batch of orders that were all read in the expected status
+    @Modifying
+    @Query("update Order o set o.status = :next, o.version = o.version + 1, o.updatedAt = :now "
+            + "where o.id in :ids and o.status = :expected")
+    int compareAndSetStatuses(@Param("ids") Collection<Long> ids, @Param("expected") Order.OrderStatus expected,
+                              @Param("next") Order.OrderStatus next, @Param("now") LocalDateTime now);
+
+    // Summary read model (UserOrderSummaryService)
+
+    @Query("select new sahe.com.orderservice.dto.OrderStatusTotal(o.userId, o.status, count(o), sum(o.totalAmount)) "
+            + "from Order o where o.userId in :userIds group by o.userId, o.status")
+    List<OrderStatusTotal> findStatusTotalsByUserIdIn(@Param("userIds") Collection<Long> userIds);
+
+    @Query("select new sahe.com.orderservice.dto.OrderHeader(o.id, o.status, o.totalAmount, o.createdAt) "
+            + "from Order o where o.userId = :userId order by o.createdAt desc, o.id desc")
+    List<OrderHeader> findRecentHeaders(@Param("userId") Long userId, Pageable pageable);
+
+    // Users with orders but no summary yet
+    @Query("select distinct o.userId from Order o where o.userId > :after and not exists "
+            + "(select 1 from UserOrderSummary s where s.userId = o.userId) order by o.userId")
+    List<Long> findUserIdsWithoutSummary(@Param("after") Long after, Pageable pageable);
+
+    @Query("select distinct o from Order o left join fetch o.items where o.id in :ids")
+    List<Order> fetchItemsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Initializes the items of the given managed orders (used where entities are read, such
+     * as the streaming exports) with one extra query per
+     * {@value #ITEM_FETCH_CHUNK} orders, instead of one lazy load per order. The orders
+     * are queried without a collection fetch first, so pagination stays in SQL.
+     */
+    default List<Order> withItems(List<Order> orders) {
+        for (int from = 0; from < orders.size(); from += ITEM_FETCH_CHUNK) {
+            List<Order> chunk = orders.subList(from, Math.min(from + ITEM_FETCH_CHUNK, orders.size()));
+            fetchItemsByIdIn(chunk.stream().map(Order::getId).toList());
+        }
+        return orders;
+    }
+
+    // Keyset pagination, newest first: the page after the (createdAt, id) cursor
+
+    @Query(SELECT_RESPONSE + "where (o.createdAt, o.id) < (:createdAt, :id) order by o.createdAt desc, o.id desc")
+    List<OrderResponse> findPage(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+
+    @Query(SELECT_RESPONSE + "where o.userId = :userId and (o.createdAt, o.id) < (:createdAt, :id) "
+            + "order by o.createdAt desc, o.id desc")
+    List<OrderResponse> findPageByUserId(@Param("userId") Long userId, @Param("createdAt") LocalDateTime createdAt,
+                                         @Param("id") Long id, Pageable pageable);
+
+    @Query(SELECT_RESPONSE + "where o.status = :status and (o.createdAt, o.id) < (:createdAt, :id) "
+            + "order by o.createdAt desc, o.id desc")
+    List<OrderResponse> findPageByStatus(@Param("status") Order.OrderStatus status, @Param("createdAt") LocalDateTime createdAt,
+                                         @Param("id") Long id, Pageable pageable);
+
+    // Streaming reads for NDJSON exports: rows are fetched from a cursor in chunks of the fetch size
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select o from Order o order by o.id")
+    Stream<Order> streamAll();
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select o from Order o where o.userId = :userId order by o.id")
+    Stream<Order> streamByUserId(@Param("userId") Long userId);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select o from Order o where o.status = :status order by o.id")
+    Stream<Order> streamByStatus(@Param("status") Order.OrderStatus status);
+
+    // Sales analytics: grouped in the database over a created_at range [from, to), only the
+    // aggregated rows leave it. Streamed so a long series never sits in a result list
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new sahe.com.orderservice.dto.SalesBucket(year(o.createdAt), month(o.createdAt), day(o.createdAt), "
+            + "count(o), sum(o.totalAmount)) from Order o "
+            + "where o.createdAt >= :from and o.createdAt < :to and o.status in :statuses "
+            + "group by year(o.createdAt), month(o.createdAt), day(o.createdAt) "
+            + "order by year(o.createdAt), month(o.createdAt), day(o.createdAt)")
+    Stream<SalesBucket> streamSalesByDay(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                                         @Param("statuses") Collection<Order.OrderStatus> statuses);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new sahe.com.orderservice.dto.SalesBucket(year(o.createdAt), month(o.createdAt), 1, "
+            + "count(o), sum(o.totalAmount)) from Order o "
+            + "where o.createdAt >= :from and o.createdAt < :to and o.status in :statuses "
+            + "group by year(o.createdAt), month(o.createdAt) "
+            + "order by year(o.createdAt), month(o.createdAt)")
+    Stream<SalesBucket> streamSalesByMonth(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                                           @Param("statuses") Collection<Order.OrderStatus> statuses);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new sahe.com.orderservice.dto.SalesBucket(year(o.createdAt), 1, 1, "
+            + "count(o), sum(o.totalAmount)) from Order o "
+            + "where o.createdAt >= :from and o.createdAt < :to and o.status in :statuses "
+            + "group by year(o.createdAt) order by year(o.createdAt)")
+    Stream<SalesBucket> streamSalesByYear(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                                          @Param("statuses") Collection<Order.OrderStatus> statuses);
+
+    @Query("select new sahe.com.orderservice.dto.SalesByCountry(o.shippingCountry, count(o), sum(o.totalAmount)) "
+            + "from Order o where o.createdAt >= :from and o.createdAt < :to and o.status in :statuses "
+            + "group by o.shippingCountry order by sum(o.totalAmount) desc, o.shippingCountry")
+    Stream<SalesByCountry> streamSalesByCountry(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                                                @Param("statuses") Collection<Order.OrderStatus> statuses);
+
+    @Query("select new sahe.com.orderservice.dto.SalesByStatus(o.status, count(o), sum(o.totalAmount)) "
+            + "from Order o where o.createdAt >= :from and o.createdAt < :to and o.status in :statuses "
+            + "group by o.status order by o.status")
+    Stream<SalesByStatus> streamSalesByStatus(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                                              @Param("statuses") Collection<Order.OrderStatus> statuses);
 }
@@ -0,0 +1,44 @@
+package sahe.com.orderservice.repository;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import sahe.com.orderservice.model.OutboxEvent;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // Due events nobody holds a lease on; rows locked by another dispatcher are skipped
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select e from OutboxEvent e where e.status = sahe.com.orderservice.model.OutboxEvent.Status.PENDING "
+            + "and e.nextAttemptAt <= :now and (e.lockedUntil is null or e.lockedUntil < :now) order by e.id")
+    List<OutboxEvent> findDue(@Param("now") LocalDateTime now, Pageable pageable);
+
+    @Modifying
+    @Query("update OutboxEvent e set e.status = sahe.com.orderservice.model.OutboxEvent.Status.DONE, "
+            + "e.processedAt = :now, e.lockedUntil = null where e.id = :id")
+    int markDone(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("update OutboxEvent e set e.status = :status, e.attempts = :attempts, e.nextAttemptAt = :nextAttemptAt, "
+            + "e.lastError = :error, e.lockedUntil = null where e.id = :id")
+    int markAttemptFailed(@Param("id") Long id, @Param("status") OutboxEvent.Status status,
+                          @Param("attempts") int attempts, @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                          @Param("error") String error);
+
+    long countByStatus(OutboxEvent.Status status);
+
+    @Query("select min(e.createdAt) from OutboxEvent e where e.status = :status")
+    LocalDateTime findOldestCreatedAt(@Param("status") OutboxEvent.Status status);
+}
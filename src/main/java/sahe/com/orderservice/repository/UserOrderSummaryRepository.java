@@ -0,0 +1,25 @@
+package sahe.com.orderservice.repository;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import sahe.com.orderservice.model.UserOrderSummary;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface UserOrderSummaryRepository extends JpaRepository<UserOrderSummary, Long> {
+
+    // Serializes the updates of one user's summary until the order transaction commits
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from UserOrderSummary s where s.userId = :userId")
+    Optional<UserOrderSummary> findForUpdate(@Param("userId") Long userId);
+
+    @Query("select s from UserOrderSummary s where s.userId > :after order by s.userId")
+    List<UserOrderSummary> findPageAfter(@Param("after") Long after, Pageable pageable);
+}
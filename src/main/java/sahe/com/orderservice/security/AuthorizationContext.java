@@ -0,0 +1,51 @@
+package sahe.com.orderservice.security;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * The caller's Authorization header, forwarded on Feign calls. On the request thread it is
+ * read from the current request; tasks handed to another thread carry a copy taken when they
+ * were submitted, so they never touch the (possibly finished and recycled) servlet request.
+ * Work that runs outside any request uses {@link #runAs} with the service's own credential.
+ */
+public final class AuthorizationContext {
+
+    private static final ThreadLocal<String> CAPTURED = new ThreadLocal<>();
+
+    private AuthorizationContext() {
+    }
+
+    public static String currentHeader() {
+        String captured = CAPTURED.get();
+        if (captured != null) {
+            return captured;
+        }
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            return attributes.getRequest().getHeader(HttpHeaders.AUTHORIZATION);
+        }
+        return null;
+    }
+
+    /** Wraps a task so it runs with the Authorization header of the submitting thread. */
+    public static Runnable capture(Runnable task) {
+        String header = currentHeader();
+        return () -> runAs(header, task);
+    }
+
+    /** Runs the task on this thread with the given Authorization header, then restores the previous one. */
+    public static void runAs(String header, Runnable task) {
+        String previous = CAPTURED.get();
+        CAPTURED.set(header);
+        try {
+            task.run();
+        } finally {
+            if (previous != null) {
+                CAPTURED.set(previous);
+            } else {
+                CAPTURED.remove();
+            }
+        }
+    }
+}
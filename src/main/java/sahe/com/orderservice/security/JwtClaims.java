@@ -0,0 +1,18 @@
+package sahe.com.orderservice.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Claims of a verified JWT. Built once per distinct token, including the granted
+ * authorities, so cached verifications can be reused as is.
+ */
+public record JwtClaims(String email, String role, Instant expiresAt, List<GrantedAuthority> authorities) {
+
+    public static JwtClaims of(String email, String role, Instant expiresAt) {
+        return new JwtClaims(email, role, expiresAt, List.of(new SimpleGrantedAuthority("ROLE_" + role)));
+    }
+}
@@ -0,0 +1,24 @@
+package sahe.com.orderservice.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * The token order-service presents as itself on calls made outside a request, where there is no
+ * caller to forward (the outbox dispatcher, scheduled work). Configured with
+ * {@code security.service-token}; without it such calls go out without an Authorization header.
+ */
+@Component
+public class ServiceCredentials {
+
+    private final String authorizationHeader;
+
+    public ServiceCredentials(@Value("${security.service-token:}") String serviceToken) {
+        this.authorizationHeader = serviceToken.isBlank() ? null : "Bearer " + serviceToken;
+    }
+
+    /** The Authorization header value, or {@code null} when no service token is configured. */
+    public String authorizationHeader() {
+        return authorizationHeader;
+    }
+}
@@ -0,0 +1,228 @@
+package sahe.com.orderservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import sahe.com.orderservice.dto.OrderRequest;
+import sahe.com.orderservice.dto.OrderResponse;
+import sahe.com.orderservice.exception.IdempotencyKeyException;
+import sahe.com.orderservice.model.IdempotencyKey;
+import sahe.com.orderservice.repository.IdempotencyKeyRepository;
+import tools.jackson.databind.ObjectMapper;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HexFormat;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * Runs POST /orders at most once per Idempotency-Key.
+ * <p>
+ * Completed responses are served from an in-memory hot index, then from the
+ * {@code idempotency_keys} table, without calling any other service. A duplicate that arrives
+ * while the original is running on this instance waits for the original's result; one that
+ * reaches another instance gets 409 until the original completes. A failed request releases
+ * its key so the client can retry it.
+ */
+@Service
+@Slf4j
+public class IdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 100;
+
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration waitTimeout;
+    private final Duration claimTimeout;
+
+    // Completed responses by key, so hot retries never reach the database
+    private final Cache<String, StoredResponse> completed;
+
+    // Requests currently running on this instance
+    private final ConcurrentMap<String, InFlight> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyService(IdempotencyKeyRepository idempotencyKeyRepository,
+                              TransactionTemplate transactionTemplate,
+                              ObjectMapper objectMapper,
+                              @Value("${idempotency.hot-index.maximum-size:10000}") long hotIndexMaximumSize,
+                              @Value("${idempotency.hot-index.ttl:10m}") Duration hotIndexTtl,
+                              @Value("${idempotency.wait-timeout:30s}") Duration waitTimeout,
+                              @Value("${idempotency.claim-timeout:5m}") Duration claimTimeout) {
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.waitTimeout = waitTimeout;
+        this.claimTimeout = claimTimeout;
+        this.completed = Caffeine.newBuilder()
+                .maximumSize(hotIndexMaximumSize)
+                .expireAfterWrite(hotIndexTtl)
+                .build();
+    }
+
+    public OrderResponse execute(String key, OrderRequest request, Supplier<OrderResponse> action) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IdempotencyKeyException(HttpStatus.BAD_REQUEST,
+                    "Idempotency-Key must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+        String requestHash = hash(request);
+
+        StoredResponse stored = completed.getIfPresent(key);
+        if (stored != null) {
+            return replay(key, stored, requestHash);
+        }
+
+        InFlight mine = new InFlight(requestHash, new CompletableFuture<>());
+        InFlight running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            return await(key, running, requestHash);
+        }
+        try {
+            OrderResponse response = runOnce(key, requestHash, action);
+            mine.result().complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            mine.result().completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private OrderResponse runOnce(String key, String requestHash, Supplier<OrderResponse> action) {
+        if (!claim(key, requestHash)) {
+            IdempotencyKey existing = idempotencyKeyRepository.findById(key).orElse(null);
+            // Released by a failed request in the meantime: claim it now
+            if (existing == null && !claim(key, requestHash)) {
+                throw stillProcessing();
+            }
+            if (existing != null) {
+                if (!existing.getRequestHash().equals(requestHash)) {
+                    throw reusedWithAnotherRequest();
+                }
+                if (existing.getResponse() != null) {
+                    StoredResponse stored = new StoredResponse(requestHash,
+                            objectMapper.readValue(existing.getResponse(), OrderResponse.class));
+                    completed.put(key, stored);
+                    return replay(key, stored, requestHash);
+                }
+                if (!takeOver(existing)) {
+                    throw stillProcessing();
+                }
+            }
+        }
+
+        OrderResponse response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            release(key);
+            throw e;
+        }
+
+        try {
+            String json = objectMapper.writeValueAsString(response);
+            transactionTemplate.executeWithoutResult(status ->
+                    idempotencyKeyRepository.complete(key, response.getId(), json));
+        } catch (RuntimeException e) {
+            // The order exists; retries on this instance are still answered by the hot index
+            log.error("Could not store the response for Idempotency-Key: {}", key, e);
+        }
+        completed.put(key, new StoredResponse(requestHash, response));
+        return response;
+    }
+
+    private boolean claim(String key, String requestHash) {
+        try {
+            return Boolean.TRUE.equals(transactionTemplate.execute(status ->
+                    idempotencyKeyRepository.claim(key, requestHash, now()) == 1));
+        } catch (DataIntegrityViolationException e) {
+            return false;
+        }
+    }
+
+    // A claim older than claim-timeout belongs to a request that died before completing
+    private boolean takeOver(IdempotencyKey existing) {
+        LocalDateTime now = now();
+        if (existing.getCreatedAt().isAfter(now.minus(claimTimeout))) {
+            return false;
+        }
+        log.warn("Taking over abandoned Idempotency-Key: {}", existing.getKey());
+        return Boolean.TRUE.equals(transactionTemplate.execute(status ->
+                idempotencyKeyRepository.reclaim(existing.getKey(), existing.getCreatedAt(), now) == 1));
+    }
+
+    private void release(String key) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> idempotencyKeyRepository.deleteById(key));
+        } catch (RuntimeException e) {
+            log.error("Could not release Idempotency-Key: {}", key, e);
+        }
+    }
+
+    private OrderResponse replay(String key, StoredResponse stored, String requestHash) {
+        if (!stored.requestHash().equals(requestHash)) {
+            throw reusedWithAnotherRequest();
+        }
+        log.info("Replaying order {} for Idempotency-Key: {}", stored.response().getId(), key);
+        return stored.response();
+    }
+
+    private OrderResponse await(String key, InFlight running, String requestHash) {
+        if (!running.requestHash().equals(requestHash)) {
+            throw reusedWithAnotherRequest();
+        }
+        log.info("Waiting for the in-flight request with Idempotency-Key: {}", key);
+        try {
+            return running.result().get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new RuntimeException(e.getCause().getMessage(), e.getCause());
+        } catch (TimeoutException e) {
+            throw stillProcessing();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for Idempotency-Key: " + key);
+        }
+    }
+
+    private String hash(OrderRequest request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static LocalDateTime now() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+    }
+
+    private static IdempotencyKeyException stillProcessing() {
+        return new IdempotencyKeyException(HttpStatus.CONFLICT,
+                "A request with this Idempotency-Key is still being processed");
+    }
+
+    private static IdempotencyKeyException reusedWithAnotherRequest() {
+        return new IdempotencyKeyException(HttpStatus.UNPROCESSABLE_CONTENT,
+                "Idempotency-Key was already used with a different request");
+    }
+
+    private record StoredResponse(String requestHash, OrderResponse response) {
+    }
+
+    private record InFlight(String requestHash, CompletableFuture<OrderResponse> result) {
+    }
+}
@@ -0,0 +1,182 @@
+package sahe.com.orderservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import sahe.com.orderservice.dto.ProductSales;
+import sahe.com.orderservice.dto.SalesBucket;
+import sahe.com.orderservice.dto.SalesByCountry;
+import sahe.com.orderservice.dto.SalesByStatus;
+import sahe.com.orderservice.model.Order;
+import sahe.com.orderservice.repository.OrderItemRepository;
+import sahe.com.orderservice.repository.OrderRepository;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Sales aggregates over orders created between two dates (both inclusive). Grouping runs in
+ * the database; list results are cached for {@code order.analytics.cache.ttl}, and identical
+ * requests arriving while one is computed wait for it instead of running the query again.
+ * Unless statuses are given, cancelled orders are left out of everything but the status
+ * breakdown.
+ */
+@Service
+@Slf4j
+public class OrderAnalyticsService {
+
+    public static final String CACHE_NAME = "order.analytics";
+
+    private static final Set<Order.OrderStatus> ALL_STATUSES = EnumSet.allOf(Order.OrderStatus.class);
+    private static final Set<Order.OrderStatus> REVENUE_STATUSES = EnumSet.complementOf(
+            EnumSet.of(Order.OrderStatus.CANCELLED));
+
+    public enum Granularity { DAY, MONTH, YEAR }
+
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Cache<AnalyticsQuery, List<?>> results;
+
+    @Value("${order.analytics.max-range:1830d}")
+    private Duration maxRange = Duration.ofDays(1830);
+
+    @Value("${order.analytics.max-top-products:1000}")
+    private int maxTopProducts = 1000;
+
+    public OrderAnalyticsService(OrderRepository orderRepository,
+                                 OrderItemRepository orderItemRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${order.analytics.cache.maximum-size:1000}") long maximumSize,
+                                 @Value("${order.analytics.cache.ttl:30s}") Duration ttl) {
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.results = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, results, CACHE_NAME);
+    }
+
+    public List<SalesBucket> getSales(LocalDate from, LocalDate to, Granularity granularity,
+                                      Set<Order.OrderStatus> statuses) {
+        Set<Order.OrderStatus> filter = statusesOrDefault(statuses, REVENUE_STATUSES);
+        return cached(new AnalyticsQuery("sales", from, to, filter, granularity),
+                () -> sales(from, to, granularity, filter));
+    }
+
+    public List<SalesByCountry> getSalesByCountry(LocalDate from, LocalDate to, Set<Order.OrderStatus> statuses) {
+        Set<Order.OrderStatus> filter = statusesOrDefault(statuses, REVENUE_STATUSES);
+        return cached(new AnalyticsQuery("country", from, to, filter, null),
+                () -> orderRepository.streamSalesByCountry(start(from, to), end(to), filter));
+    }
+
+    public List<SalesByStatus> getSalesByStatus(LocalDate from, LocalDate to, Set<Order.OrderStatus> statuses) {
+        Set<Order.OrderStatus> filter = statusesOrDefault(statuses, ALL_STATUSES);
+        return cached(new AnalyticsQuery("status", from, to, filter, null),
+                () -> orderRepository.streamSalesByStatus(start(from, to), end(to), filter));
+    }
+
+    public List<ProductSales> getTopProducts(LocalDate from, LocalDate to, int limit, Set<Order.OrderStatus> statuses) {
+        if (limit < 1 || limit > maxTopProducts) {
+            throw new IllegalArgumentException("limit must be between 1 and " + maxTopProducts);
+        }
+        Set<Order.OrderStatus> filter = statusesOrDefault(statuses, REVENUE_STATUSES);
+        return cached(new AnalyticsQuery("products", from, to, filter, limit),
+                () -> orderItemRepository.streamTopProducts(start(from, to), end(to), filter, Limit.of(limit)));
+    }
+
+    // Streaming variants: rows go to the consumer as the database returns them, not cached
+
+    @Transactional(readOnly = true)
+    public void streamSales(LocalDate from, LocalDate to, Granularity granularity, Set<Order.OrderStatus> statuses,
+                            Consumer<SalesBucket> consumer) {
+        log.info("Streaming {} sales from {} to {}", granularity, from, to);
+        try (Stream<SalesBucket> rows = sales(from, to, granularity, statusesOrDefault(statuses, REVENUE_STATUSES))) {
+            rows.forEach(consumer);
+        }
+    }
+
+    /** Every product sold in the range, ranked by units. */
+    @Transactional(readOnly = true)
+    public void streamProducts(LocalDate from, LocalDate to, Set<Order.OrderStatus> statuses,
+                               Consumer<ProductSales> consumer) {
+        log.info("Streaming product sales from {} to {}", from, to);
+        try (Stream<ProductSales> rows = orderItemRepository.streamTopProducts(start(from, to), end(to),
+                statusesOrDefault(statuses, REVENUE_STATUSES), Limit.unlimited())) {
+            rows.forEach(consumer);
+        }
+    }
+
+    public void invalidateAll() {
+        log.info("Invalidating cached analytics results");
+        results.invalidateAll();
+    }
+
+    private Stream<SalesBucket> sales(LocalDate from, LocalDate to, Granularity granularity,
+                                      Collection<Order.OrderStatus> statuses) {
+        LocalDateTime start = start(from, to);
+        return switch (granularity) {
+            case DAY -> orderRepository.streamSalesByDay(start, end(to), statuses);
+            case MONTH -> orderRepository.streamSalesByMonth(start, end(to), statuses);
+            case YEAR -> orderRepository.streamSalesByYear(start, end(to), statuses);
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> List<T> cached(AnalyticsQuery query, Supplier<Stream<T>> source) {
+        return (List<T>) results.get(query, key -> {
+            log.info("Computing {} analytics from {} to {}", key.dimension(), key.from(), key.to());
+            return readOnlyTransaction.execute(status -> {
+                try (Stream<T> rows = source.get()) {
+                    return rows.toList();
+                }
+            });
+        });
+    }
+
+    // Validates the range and returns its first instant
+    private LocalDateTime start(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        if (Duration.between(from.atStartOfDay(), end(to)).compareTo(maxRange) > 0) {
+            throw new IllegalArgumentException("Date range must not exceed " + maxRange.toDays() + " days");
+        }
+        return from.atStartOfDay();
+    }
+
+    // The range includes the whole of its last day
+    private static LocalDateTime end(LocalDate to) {
+        return to.plusDays(1).atStartOfDay();
+    }
+
+    private static Set<Order.OrderStatus> statusesOrDefault(Set<Order.OrderStatus> statuses,
+                                                            Set<Order.OrderStatus> defaults) {
+        return statuses == null || statuses.isEmpty() ? defaults : EnumSet.copyOf(statuses);
+    }
+
+    private record AnalyticsQuery(String dimension, LocalDate from, LocalDate to,
+                                  Set<Order.OrderStatus> statuses, Object option) {
+    }
+}
@@ -0,0 +1,93 @@
+package sahe.com.orderservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import sahe.com.orderservice.exception.DownstreamUnavailableException;
+import sahe.com.orderservice.exception.StockReservationException;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Meters of the order pipeline. Names and tags are a contract dashboards and alerts are built
+ * on (see the Metrics section of the README): add tags or meters freely, rename none.
+ */
+@Component
+public class OrderMetrics {
+
+    /** Timer per create stage; tags {@code stage}, {@code outcome}. */
+    public static final String CREATE_STAGE = "order.create.stage";
+    /** Gauge of createOrder calls currently running. */
+    public static final String CREATE_ACTIVE = "order.create.active";
+    /** Counter of failed creates; tags {@code stage}, {@code reason}. */
+    public static final String CREATE_FAILED = "order.create.failed";
+    /** Counter of stored orders; tag {@code mode} (sync, async). */
+    public static final String CREATED = "order.created";
+    /** Counter of cancellations; tag {@code reason} (requested, stock_reservation, confirm). */
+    public static final String CANCELLED = "order.cancelled";
+
+    private final MeterRegistry meterRegistry;
+    private final AtomicInteger activeCreates = new AtomicInteger();
+
+    public OrderMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        Gauge.builder(CREATE_ACTIVE, activeCreates, AtomicInteger::get)
+                .description("Order creations in progress")
+                .register(meterRegistry);
+    }
+
+    /** Runs a whole createOrder call, counted in {@value #CREATE_ACTIVE} while it runs. */
+    public <T> T trackCreate(Supplier<T> create) {
+        activeCreates.incrementAndGet();
+        try {
+            return create.get();
+        } finally {
+            activeCreates.decrementAndGet();
+        }
+    }
+
+    /** Times one create stage; a failure is also counted in {@value #CREATE_FAILED}. */
+    public <T> T stage(String stage, Supplier<T> action) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            return action.get();
+        } catch (RuntimeException e) {
+            outcome = "failure";
+            createFailed(stage, reason(stage, e));
+            throw e;
+        } finally {
+            sample.stop(meterRegistry.timer(CREATE_STAGE, "stage", stage, "outcome", outcome));
+        }
+    }
+
+    public void createFailed(String stage, String reason) {
+        Counter.builder(CREATE_FAILED)
+                .tag("stage", stage)
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    public void created(boolean async) {
+        meterRegistry.counter(CREATED, "mode", async ? "async" : "sync").increment();
+    }
+
+    public void cancelled(String reason) {
+        meterRegistry.counter(CANCELLED, "reason", reason).increment();
+    }
+
+    // A small fixed set of values, so the tag stays low-cardinality
+    private static String reason(String stage, RuntimeException e) {
+        if (e instanceof DownstreamUnavailableException || e.getCause() instanceof DownstreamUnavailableException) {
+            return "downstream_unavailable";
+        }
+        if (e instanceof StockReservationException) {
+            return "out_of_stock";
+        }
+        return "validate".equals(stage) ? "invalid" : "error";
+    }
+}
@@ -0,0 +1,93 @@
+package sahe.com.orderservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import sahe.com.orderservice.dto.OrderResponse;
+import tools.jackson.databind.ObjectMapper;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of serialized single-order responses (GET /orders/{id}), keyed by id, with a
+ * strong ETag built from the order's version.
+ * <p>
+ * Staleness: every write path of this instance evicts the order after its transaction
+ * commits. A load running while the order is evicted finishes before the eviction removes
+ * it, so a read that starts after a change committed never sees the previous state. Changes
+ * made by other instances are picked up within {@code order.read-cache.ttl}.
+ */
+@Component
+@Slf4j
+public class OrderReadCache {
+
+    public static final String CACHE_NAME = "order.read";
+
+    private final ObjectMapper objectMapper;
+    private final Cache<Long, CachedOrder> orders;
+
+    @Autowired
+    public OrderReadCache(ObjectMapper objectMapper,
+                          MeterRegistry meterRegistry,
+                          @Value("${order.read-cache.maximum-size:10000}") long maximumSize,
+                          @Value("${order.read-cache.ttl:1m}") Duration ttl) {
+        this.objectMapper = objectMapper;
+        this.orders = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, orders, CACHE_NAME);
+    }
+
+    /**
+     * The cached response, or the one {@code loader} reads (in its own transaction), serialized once.
+     * Loads read the primary: a replica's older row would otherwise be cached for the whole ttl.
+     */
+    public CachedOrder get(Long id, Supplier<OrderResponse> loader) {
+        return orders.get(id, key -> {
+            OrderResponse order = ReadYourWritesGuard.onPrimary(loader);
+            return new CachedOrder(objectMapper.writeValueAsBytes(order), etag(order));
+        });
+    }
+
+    /** Evicts the order once the current transaction commits, or right away outside one. */
+    public void evict(Long id) {
+        evictAll(List.of(id));
+    }
+
+    public void evictAll(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            orders.invalidateAll(ids);
+            return;
+        }
+        // Before the commit a reader could still load and cache the old row
+        List<Long> evicted = List.copyOf(ids);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                orders.invalidateAll(evicted);
+            }
+        });
+    }
+
+    private static String etag(OrderResponse order) {
+        return "\"" + order.getId() + "-" + order.getVersion() + "\"";
+    }
+
+    public record CachedOrder(byte[] body, String etag) {
+    }
+}
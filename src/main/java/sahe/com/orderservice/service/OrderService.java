@@ -1,78 +1,293 @@
 package sahe.com.orderservice.service;
 
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import sahe.com.orderservice.client.*;
+import sahe.com.orderservice.dto.BulkStatusUpdateRequest;
+import sahe.com.orderservice.dto.BulkStatusUpdateResponse;
+import sahe.com.orderservice.dto.OrderCursor;
+import sahe.com.orderservice.dto.OrderFields;
+import sahe.com.orderservice.dto.OrderHeader;
+import sahe.com.orderservice.dto.OrderItemResponse;
 import sahe.com.orderservice.dto.OrderItemRequest;
+import sahe.com.orderservice.dto.OrderPage;
 import sahe.com.orderservice.dto.OrderRequest;
 import sahe.com.orderservice.dto.OrderResponse;
+import sahe.com.orderservice.dto.OrderStatusRow;
 import sahe.com.orderservice.dto.OrderStatusUpdateRequest;
+import sahe.com.orderservice.exception.InvalidStatusTransitionException;
+import sahe.com.orderservice.exception.OrderConflictException;
+import sahe.com.orderservice.exception.StockReservationException;
 import sahe.com.orderservice.model.Order;
 import sahe.com.orderservice.model.OrderItem;
+import sahe.com.orderservice.repository.OrderItemRepository;
 import sahe.com.orderservice.repository.OrderRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 @Service
 @Slf4j
 @RequiredArgsConstructor
+// One order.service timer per public method (tags class, method, exception)
+@Timed(value = "order.service", histogram = true)
 public class OrderService {
 
-    private final OrderRepository orderRepository;
-    private final ProductClient productClient;
-    private final InventoryClient inventoryClient;
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int BULK_STATUS_CHUNK = 1_000;
 
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final OrderValidator orderValidator;
+    private final StockReservationService stockReservationService;
+    private final OutboxService outboxService;
+    private final UserOrderSummaryService userOrderSummaryService;
+    private final OrderReadCache orderReadCache;
+    private final TransactionTemplate transactionTemplate;
+    private final OrderMetrics orderMetrics;
+    private final EntityManager entityManager;
+    private final ReadYourWritesGuard readYourWritesGuard;
+
+    // When set, POST /orders returns the PENDING order and stock is reserved by the outbox dispatcher
+    @Value("${order.stock-reservation.async:false}")
+    private boolean asyncStockReservation;
+
+    // Attempts a status change gets when concurrent updates keep winning before it answers 409
+    @Value("${order.status-update.max-attempts:5}")
+    private int statusUpdateMaxAttempts = 5;
+
+    @Transactional(readOnly = true)
     public List<OrderResponse> getAllOrders() {
-        log.info("Receiving all orders");
-        return orderRepository.findAll()
-                .stream()
-                .map(OrderResponse::new)
-                .collect(Collectors.toList());
+        return getAllOrders(OrderFields.ALL);
     }
 
+    @Transactional(readOnly = true)
+    public List<OrderResponse> getAllOrders(OrderFields fields) {
+        log.info("Receiving all orders, fields: {}", fields.names());
+        return read(fields, orderRepository::findAllSummaries, orderRepository::findAllResponses);
+    }
+
+    @Transactional(readOnly = true)
     public OrderResponse getOrderById(Long id) {
         log.info("Get order by id: {}", id);
-        Order order = orderRepository.findById(id)
+        OrderResponse order = orderRepository.findResponseById(id)
                 .orElseThrow(() -> new RuntimeException("Order not found with id: " + id));
-        return new OrderResponse(order);
+        orderItemRepository.attachItems(List.of(order));
+        return order;
     }
 
+    @Transactional(readOnly = true)
     public List<OrderResponse> getOrdersByUserId(Long userId) {
-        log.info("Get orders by user ID: {}", userId);
-        return orderRepository.findByUserId(userId)
-                .stream()
-                .map(OrderResponse::new)
-                .collect(Collectors.toList());
+        return getOrdersByUserId(userId, OrderFields.ALL);
+    }
+
+    @Transactional(readOnly = true)
+    public List<OrderResponse> getOrdersByUserId(Long userId, OrderFields fields) {
+        log.info("Get orders by user ID: {}, fields: {}", userId, fields.names());
+        return read(fields, () -> orderRepository.findSummariesByUserId(userId),
+                () -> orderRepository.findResponsesByUserId(userId));
     }
 
+    @Transactional(readOnly = true)
     public List<OrderResponse> getOrdersByStatus(Order.OrderStatus status) {
-        log.info("Get orders by status: {}", status);
-        return orderRepository.findByStatus(status)
-                .stream()
-                .map(OrderResponse::new)
-                .collect(Collectors.toList());
+        return getOrdersByStatus(status, OrderFields.ALL);
     }
 
-    @Transactional
+    @Transactional(readOnly = true)
+    public List<OrderResponse> getOrdersByStatus(Order.OrderStatus status, OrderFields fields) {
+        log.info("Get orders by status: {}, fields: {}", status, fields.names());
+        return read(fields, () -> orderRepository.findSummariesByStatus(status),
+                () -> orderRepository.findResponsesByStatus(status));
+    }
+
+    @Transactional(readOnly = true)
+    public OrderPage getOrdersPage(String cursor, int size) {
+        log.info("Get orders page after cursor: {}", cursor);
+        OrderCursor position = OrderCursor.decode(cursor);
+        return toPage(orderRepository.findPage(position.createdAt(), position.id(), pageRequest(size)), size);
+    }
+
+    @Transactional(readOnly = true)
+    public OrderPage getOrdersPageByUserId(Long userId, String cursor, int size) {
+        log.info("Get orders page by user ID: {} after cursor: {}", userId, cursor);
+        OrderCursor position = OrderCursor.decode(cursor);
+        return toPage(orderRepository.findPageByUserId(userId, position.createdAt(), position.id(),
+                pageRequest(size)), size);
+    }
+
+    @Transactional(readOnly = true)
+    public OrderPage getOrdersPageByStatus(Order.OrderStatus status, String cursor, int size) {
+        log.info("Get orders page by status: {} after cursor: {}", status, cursor);
+        OrderCursor position = OrderCursor.decode(cursor);
+        return toPage(orderRepository.findPageByStatus(status, position.createdAt(), position.id(),
+                pageRequest(size)), size);
+    }
+
+    // Streaming reads: orders are handed to the consumer in chunks (one items query per chunk)
+    // and detached right away, so the persistence context and the heap stay flat however many
+    // rows match
+
+    @Transactional(readOnly = true)
+    public void streamAllOrders(Consumer<OrderResponse> consumer) {
+        log.info("Streaming all orders");
+        stream(orderRepository.streamAll(), consumer);
+    }
+
+    @Transactional(readOnly = true)
+    public void streamOrdersByUserId(Long userId, Consumer<OrderResponse> consumer) {
+        log.info("Streaming orders by user ID: {}", userId);
+        stream(orderRepository.streamByUserId(userId), consumer);
+    }
+
+    @Transactional(readOnly = true)
+    public void streamOrdersByStatus(Order.OrderStatus status, Consumer<OrderResponse> consumer) {
+        log.info("Streaming orders by status: {}", status);
+        stream(orderRepository.streamByStatus(status), consumer);
+    }
+
+    /**
+     * Creates an order as a staged pipeline so no database connection is held while
+     * product-service or inventory-service are being called:
+     * validate (remote, no transaction) -> persist PENDING (short transaction) ->
+     * reserve stock (remote, no transaction) -> confirm (short transaction).
+     * If the reservation fails, or the confirmation fails after it, the order is cancelled by
+     * a compensating transaction that also queues the release of every reserved line.
+     * With order.stock-reservation.async the reservation is queued in the outbox together with
+     * the PENDING order instead, and {@link #reserveStock} runs it later.
+     */
     public OrderResponse createOrder(OrderRequest request) {
-        log.info(": {}", request.getUserId());
-        for (OrderItemRequest itemRequest : request.getItems()) {
-            ProductResponse product = productClient.getProductById(itemRequest.getProductId());
-            if (!product.getActive()) {
-                throw new RuntimeException("Product " + product.getName() + " is not active");
-            }
-            AvailabilityResponse availability = inventoryClient.checkAvailability(
-                    itemRequest.getProductId(),
-                    itemRequest.getQuantity()
-            );
+        OrderResponse order = orderMetrics.trackCreate(() -> create(request));
+        readYourWritesGuard.recordWrite();
+        return order;
+    }
+
+    private OrderResponse create(OrderRequest request) {
+        log.info("Creating order for user: {}", request.getUserId());
+        Map<Long, ProductResponse> products = orderMetrics.stage("validate",
+                () -> orderValidator.validate(request));
 
-            if (!availability.getAvailable()) {
-                throw new RuntimeException("Insufficient stock of product: " + product.getName());
+        Order savedOrder = orderMetrics.stage("persist", () -> transactionTemplate.execute(status -> {
+            Order order = orderRepository.save(buildOrder(request, products));
+            if (asyncStockReservation) {
+                outboxService.enqueueStockReserve(order.getId());
             }
+            userOrderSummaryService.recordCreated(order);
+            return order;
+        }));
+        log.info("Order created with id: {}", savedOrder.getId());
+        orderMetrics.created(asyncStockReservation);
+        if (asyncStockReservation) {
+            return new OrderResponse(savedOrder);
+        }
+
+        List<StockReservationResult> results;
+        try {
+            results = orderMetrics.stage("reserve",
+                    () -> stockReservationService.reserve(savedOrder.getId(), savedOrder.getItems()));
+        } catch (RuntimeException e) {
+            orderMetrics.stage("compensate",
+                    () -> compensate(savedOrder.getId(), e, acceptedLines(e), "stock_reservation"));
+            throw e;
+        }
+
+        OrderResponse confirmedOrder;
+        try {
+            confirmedOrder = orderMetrics.stage("confirm", () -> confirmReservedOrder(savedOrder, results));
+        } catch (RuntimeException e) {
+            // The stock is held for an order that is still PENDING
+            orderMetrics.stage("compensate", () -> compensate(savedOrder.getId(), e, results, "confirm"));
+            throw e;
+        }
+        if (confirmedOrder.getStatus() != Order.OrderStatus.CONFIRMED) {
+            orderMetrics.createFailed("confirm", "cancelled");
+            throw new RuntimeException("Order " + savedOrder.getId() + " was cancelled while it was being created");
+        }
+
+        log.info("Order successfully confirmed");
+        return confirmedOrder;
+    }
+
+    /**
+     * Asynchronous reservation of a PENDING order, run by the outbox dispatcher. A rejection by
+     * inventory-service cancels the order; any other failure is thrown so the event is retried.
+     */
+    public void reserveStock(Long orderId) {
+        Order order = transactionTemplate.execute(status -> {
+            Order pending = findOrder(orderId);
+            pending.getItems().size();
+            return pending;
+        });
+        if (order.getStatus() != Order.OrderStatus.PENDING) {
+            log.info("Order {} is {}, skipping stock reservation", orderId, order.getStatus());
+            return;
         }
 
+        List<StockReservationResult> results;
+        try {
+            results = stockReservationService.reserve(orderId, order.getItems());
+        } catch (StockReservationException e) {
+            compensate(orderId, e, e.getResults(), "stock_reservation");
+            return;
+        }
+        OrderResponse confirmedOrder;
+        try {
+            confirmedOrder = confirmReservedOrder(order, results);
+        } catch (RuntimeException e) {
+            // Cancelled, so the retried event skips the order instead of reserving twice
+            compensate(orderId, e, results, "confirm");
+            throw e;
+        }
+        log.info("Order {} is {} after stock reservation", orderId, confirmedOrder.getStatus());
+    }
+
+    // Confirms the order unless it was cancelled meanwhile, in which case the stock goes back.
+    // A compare-and-set on the status: no second load and save of the order and its lines
+    private OrderResponse confirmReservedOrder(Order order, List<StockReservationResult> results) {
+        Long orderId = order.getId();
+        LocalDateTime now = LocalDateTime.now();
+        Order.OrderStatus status = transactionTemplate.execute(tx -> {
+            if (orderRepository.compareAndSetStatus(orderId, Order.OrderStatus.PENDING, Order.OrderStatus.CONFIRMED,
+                    now) == 1) {
+                orderReadCache.evict(orderId);
+                userOrderSummaryService.recordStatusChange(order.getUserId(), header(order, Order.OrderStatus.CONFIRMED),
+                        Order.OrderStatus.PENDING);
+                return Order.OrderStatus.CONFIRMED;
+            }
+            Order.OrderStatus current = orderRepository.findStatusById(orderId)
+                    .orElseThrow(() -> new RuntimeException("Order not found with id: " + orderId));
+            log.warn("Order {} was {} during stock reservation, releasing its stock", orderId, current);
+            outboxService.enqueueStockReleases(orderId, reservedItems(results));
+            return current;
+        });
+        order.setStatus(status);
+        order.setUpdatedAt(now);
+        return new OrderResponse(order);
+    }
+
+    private Order buildOrder(OrderRequest request, Map<Long, ProductResponse> products) {
         Order order = new Order();
         order.setUserId(request.getUserId());
         order.setShippingAddress(request.getShippingAddress());
@@ -83,7 +298,7 @@ public class OrderService {
         order.setStatus(Order.OrderStatus.PENDING);
 
         for (OrderItemRequest itemRequest : request.getItems()) {
-            ProductResponse product = productClient.getProductById(itemRequest.getProductId());
+            ProductResponse product = products.get(itemRequest.getProductId());
 
             OrderItem orderItem = new OrderItem();
             orderItem.setProductId(product.getId());
@@ -95,115 +310,301 @@ public class OrderService {
         }
 
         order.calculateTotal();
+        return order;
+    }
 
-        Order savedOrder = orderRepository.save(order);
-        log.info("Order created with id: {}", savedOrder.getId());
+    // Cancels the order if it is still PENDING and, once it is cancelled, queues the release of
+    // the lines in reservedLines that inventory-service accepted
+    private Order compensate(Long orderId, RuntimeException cause, List<StockReservationResult> reservedLines,
+                             String reason) {
+        log.warn("Order {} failed at {}, cancelling it: {}", orderId, reason, cause.getMessage());
+        AtomicBoolean cancelled = new AtomicBoolean();
+        try {
+            Order compensated = retryOnConflict(orderId, () -> transactionTemplate.execute(status -> {
+                Order order = findOrder(orderId);
+                cancelled.set(order.getStatus() == Order.OrderStatus.PENDING);
+                if (cancelled.get()) {
+                    order.setStatus(Order.OrderStatus.CANCELLED);
+                    orderReadCache.evict(orderId);
+                    userOrderSummaryService.recordStatusChange(order.getUserId(),
+                            header(order, Order.OrderStatus.CANCELLED), Order.OrderStatus.PENDING);
+                }
+                // A confirmation that committed before failing keeps its stock
+                List<BatchStockItem> reserved = order.getStatus() == Order.OrderStatus.CANCELLED
+                        ? reservedItems(reservedLines) : List.of();
+                if (!reserved.isEmpty()) {
+                    outboxService.enqueueStockReleases(orderId, reserved);
+                }
+                return order;
+            }));
+            if (cancelled.get()) {
+                orderMetrics.cancelled(reason);
+            }
+            return compensated;
+        } catch (RuntimeException e) {
+            log.error("Could not cancel order {} after it failed at {}", orderId, reason, e);
+            return null;
+        }
+    }
 
-        for (OrderItem item : savedOrder.getItems()) {
-            try {
-                log.info("Attempting to reduce stock for product {} by {} units",
-                        item.getProductId(), item.getQuantity());
-
-                InventoryResponse reducedInventory = inventoryClient.reduceStockByProductId(
-                        item.getProductId(),
-                        new StockUpdateRequest(item.getQuantity(), "Order #" + savedOrder.getId())
-                );
-
-                log.info("Stock reduced successfully for product: {}. New quantity: {}",
-                        item.getProductId(), reducedInventory.getQuantity());
-            } catch (Exception e) {
-                log.error("ERROR reducing stock for product {}: {}", item.getProductId(), e.getMessage(), e);
-                throw new RuntimeException("Failed to reduce stock for product " + item.getProductId() + ": " + e.getMessage());
+    // Lines inventory-service accepted before rejecting another one
+    private static List<StockReservationResult> acceptedLines(RuntimeException reservationFailure) {
+        return reservationFailure instanceof StockReservationException rejected ? rejected.getResults() : List.of();
+    }
+
+    private static List<BatchStockItem> reservedItems(List<StockReservationResult> results) {
+        List<BatchStockItem> reserved = new ArrayList<>(results.size());
+        for (StockReservationResult result : results) {
+            if (Boolean.TRUE.equals(result.getSuccess())) {
+                reserved.add(new BatchStockItem(result.getProductId(), result.getQuantity()));
             }
         }
+        return reserved;
+    }
 
-        savedOrder.setStatus(Order.OrderStatus.CONFIRMED);
-        Order confirmedOrder = orderRepository.save(savedOrder);
+    private static List<BatchStockItem> stockItems(List<OrderItem> items) {
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for (OrderItem item : items) {
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+        List<BatchStockItem> stockItems = new ArrayList<>(quantities.size());
+        quantities.forEach((productId, quantity) -> stockItems.add(new BatchStockItem(productId, quantity)));
+        return stockItems;
+    }
 
-        log.info("Order successfully confirmed");
-        return new OrderResponse(confirmedOrder);
+    private static OrderHeader header(Order order, Order.OrderStatus status) {
+        return new OrderHeader(order.getId(), status, order.getTotalAmount(), order.getCreatedAt());
     }
 
-    @Transactional
-    public OrderResponse updateOrderStatus(Long id, OrderStatusUpdateRequest request) {
-        log.info("Updating order status {} to: {}", id, request.getStatus());
-        Order order = orderRepository.findById(id)
+    private Order findOrder(Long id) {
+        return orderRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Order not found with id: " + id));
+    }
 
-        validateStatusTransition(order.getStatus(), request.getStatus());
-        order.setStatus(request.getStatus());
-        Order updatedOrder = orderRepository.save(order);
+    private Pageable pageRequest(int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new RuntimeException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        // One extra row tells whether there is a next page
+        return PageRequest.ofSize(size + 1);
+    }
 
-        log.info("Order status successfully updated");
-        return new OrderResponse(updatedOrder);
+    // The narrowest projection that has the requested fields; the items query runs only for "items"
+    private List<OrderResponse> read(OrderFields fields, Supplier<List<OrderResponse>> summaries,
+                                     Supplier<List<OrderResponse>> responses) {
+        if (fields.fitsSummary()) {
+            return summaries.get();
+        }
+        List<OrderResponse> orders = responses.get();
+        return fields.includesItems() ? orderItemRepository.attachItems(orders) : orders;
     }
 
-    @Transactional
-    public OrderResponse cancelOrder(Long id) {
-        log.info("Canceling order: {}", id);
+    private OrderPage toPage(List<OrderResponse> orders, int size) {
+        boolean hasNext = orders.size() > size;
+        List<OrderResponse> content = orderItemRepository.attachItems(
+                hasNext ? new ArrayList<>(orders.subList(0, size)) : orders);
+        String nextCursor = null;
+        if (hasNext) {
+            OrderResponse last = content.get(content.size() - 1);
+            nextCursor = new OrderCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new OrderPage(content, nextCursor);
+    }
 
-        Order order = orderRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Order not found with id: " + id));
+    private void stream(Stream<Order> orders, Consumer<OrderResponse> consumer) {
+        List<Order> chunk = new ArrayList<>(OrderRepository.ITEM_FETCH_CHUNK);
+        try (orders) {
+            orders.forEach(order -> {
+                chunk.add(order);
+                if (chunk.size() == OrderRepository.ITEM_FETCH_CHUNK) {
+                    emit(chunk, consumer);
+                }
+            });
+        }
+        emit(chunk, consumer);
+    }
 
-        if (order.getStatus() != Order.OrderStatus.PENDING &&
-                order.getStatus() != Order.OrderStatus.CONFIRMED) {
-            throw new RuntimeException("The order cannot be cancelled in this state: " + order.getStatus());
+    private void emit(List<Order> chunk, Consumer<OrderResponse> consumer) {
+        if (chunk.isEmpty()) {
+            return;
         }
-        order.setStatus(Order.OrderStatus.CANCELLED);
-        Order cancelledOrder = orderRepository.save(order);
-        for (OrderItem item : cancelledOrder.getItems()) {
-            try {
-                log.info("The product stock must be returned: {}", item.getProductId());
-                // inventoryClient.addStock(item.getProductId(), new StockUpdateRequest(item.getQuantity(), "Order cancelled"));
-            } catch (Exception e) {
-                log.error("Error returning product stock: {}", item.getProductId(), e);
-            }
+        orderRepository.withItems(chunk);
+        for (Order order : chunk) {
+            consumer.accept(new OrderResponse(order));
+            entityManager.detach(order);
         }
+        chunk.clear();
+    }
+
+    public OrderResponse updateOrderStatus(Long id, OrderStatusUpdateRequest request) {
+        log.info("Updating order status {} to: {}", id, request.getStatus());
+        OrderResponse updatedOrder = transition(id, request.getStatus());
+        readYourWritesGuard.recordWrite();
+        log.info("Order status successfully updated");
+        return updatedOrder;
+    }
 
+    public OrderResponse cancelOrder(Long id) {
+        log.info("Canceling order: {}", id);
+        OrderResponse cancelledOrder = transition(id, Order.OrderStatus.CANCELLED);
+        readYourWritesGuard.recordWrite();
         log.info("Order successfully cancelled");
-        return new OrderResponse(cancelledOrder);
+        return cancelledOrder;
     }
 
-    @Transactional
-    public void deleteOrder(Long id) {
-        log.info("Deleting order: {}", id);
-        if (!orderRepository.existsById(id)) {
-            throw new RuntimeException("Order not found with id: " + id);
+    /**
+     * Moves many orders to one status without a transaction, a find and a save per order.
+     * Ids are handled in chunks, each in its own short transaction: one query reads the current
+     * statuses, the transition matrix sorts them, and one compare-and-set UPDATE per source
+     * status applies the valid ones. Cancelling is left to {@link #cancelOrder}, which returns
+     * each order's stock.
+     */
+    public BulkStatusUpdateResponse bulkUpdateStatus(BulkStatusUpdateRequest request) {
+        Order.OrderStatus target = request.getStatus();
+        if (target == Order.OrderStatus.CANCELLED) {
+            throw new RuntimeException("Orders are cancelled one at a time: PATCH /orders/{id}/cancel");
         }
-        orderRepository.deleteById(id);
-        log.info("Order successfully deleted");
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(request.getIds()));
+        log.info("Bulk updating {} orders to: {}", ids.size(), target);
+
+        List<Long> updated = new ArrayList<>(ids.size());
+        List<Long> notFound = new ArrayList<>();
+        Map<Order.OrderStatus, List<Long>> rejected = new EnumMap<>(Order.OrderStatus.class);
+        for (int from = 0; from < ids.size(); from += BULK_STATUS_CHUNK) {
+            List<Long> chunk = ids.subList(from, Math.min(from + BULK_STATUS_CHUNK, ids.size()));
+            // Outcomes are merged only once the chunk has committed
+            BulkStatusUpdateResponse outcome = transactionTemplate.execute(status -> applyStatusChunk(chunk, target));
+            updated.addAll(outcome.updated());
+            notFound.addAll(outcome.notFound());
+            outcome.rejected().forEach((current, rejectedIds) ->
+                    rejected.computeIfAbsent(current, key -> new ArrayList<>()).addAll(rejectedIds));
+        }
+
+        log.info("Bulk status update to {}: {} updated, {} not found, {} rejected", target, updated.size(),
+                notFound.size(), ids.size() - updated.size() - notFound.size());
+        readYourWritesGuard.recordWrite();
+        return new BulkStatusUpdateResponse(target, updated, notFound, rejected);
     }
 
-    private void validateStatusTransition(Order.OrderStatus current, Order.OrderStatus newStatus) {
-        // PENDING → CONFIRMED, CANCELLED
-        if (current == Order.OrderStatus.PENDING) {
-            if (newStatus != Order.OrderStatus.CONFIRMED && newStatus != Order.OrderStatus.CANCELLED) {
-                throw new RuntimeException("Invalid state transition from PENDING to" + newStatus);
-            }
+    private BulkStatusUpdateResponse applyStatusChunk(List<Long> ids, Order.OrderStatus target) {
+        Map<Long, OrderStatusRow> current = new HashMap<>(ids.size() * 2);
+        for (OrderStatusRow row : orderRepository.findStatusesByIdIn(ids)) {
+            current.put(row.id(), row);
         }
 
-        // CONFIRMED → SHIPPED, CANCELLED
-        if (current == Order.OrderStatus.CONFIRMED) {
-            if (newStatus != Order.OrderStatus.SHIPPED && newStatus != Order.OrderStatus.CANCELLED) {
-                throw new RuntimeException("Invalid state transition from CONFIRMED to " + newStatus);
+        List<Long> updated = new ArrayList<>(ids.size());
+        List<Long> notFound = new ArrayList<>();
+        Map<Order.OrderStatus, List<Long>> rejected = new EnumMap<>(Order.OrderStatus.class);
+        Map<Order.OrderStatus, List<Long>> bySource = new EnumMap<>(Order.OrderStatus.class);
+        for (Long id : ids) {
+            OrderStatusRow row = current.get(id);
+            if (row == null) {
+                notFound.add(id);
+            } else {
+                (row.status().canTransitionTo(target) ? bySource : rejected)
+                        .computeIfAbsent(row.status(), key -> new ArrayList<>()).add(id);
             }
         }
 
-        // SHIPPED → DELIVERED
-        if (current == Order.OrderStatus.SHIPPED) {
-            if (newStatus != Order.OrderStatus.DELIVERED) {
-                throw new RuntimeException("Invalid state transition from SHIPPED to " + newStatus);
+        LocalDateTime now = LocalDateTime.now();
+        bySource.forEach((source, sourceIds) -> {
+            orderReadCache.evictAll(sourceIds);
+            if (orderRepository.compareAndSetStatuses(sourceIds, source, target, now) == sourceIds.size()) {
+                updated.addAll(sourceIds);
+                userOrderSummaryService.recordStatusChanges(sourceIds.stream().map(current::get).toList(),
+                        source, target);
+                return;
+            }
+            // Some of them changed since they were read: look again to tell which ones moved
+            Map<Long, Order.OrderStatus> after = new HashMap<>(sourceIds.size() * 2);
+            for (OrderStatusRow row : orderRepository.findStatusesByIdIn(sourceIds)) {
+                after.put(row.id(), row.status());
             }
+            Set<Long> affectedUsers = new TreeSet<>();
+            for (Long id : sourceIds) {
+                Order.OrderStatus status = after.get(id);
+                if (status == null) {
+                    notFound.add(id);
+                } else if (status == target) {
+                    updated.add(id);
+                } else {
+                    rejected.computeIfAbsent(status, key -> new ArrayList<>()).add(id);
+                }
+                affectedUsers.add(current.get(id).userId());
+            }
+            // Which writer moved which order is unknown here, so recount those users instead of
+            // applying deltas
+            affectedUsers.forEach(userOrderSummaryService::recordRecount);
+        });
+        return new BulkStatusUpdateResponse(target, updated, notFound, rejected);
+    }
+
+    /**
+     * Lock-free status change: read the current status, validate the transition against it and
+     * compare-and-set it in one short transaction. If another update changed the status in
+     * between, the attempt is rolled back and repeated against the new status, so a transition
+     * is either applied to the state it was validated against or rejected, never lost.
+     */
+    private OrderResponse transition(Long id, Order.OrderStatus next) {
+        OrderResponse changed = retryOnConflict(id, () -> transactionTemplate.execute(status -> {
+            Order.OrderStatus current = orderRepository.findStatusById(id)
+                    .orElseThrow(() -> new RuntimeException("Order not found with id: " + id));
+            validateStatusTransition(current, next);
+            if (orderRepository.compareAndSetStatus(id, current, next, LocalDateTime.now()) == 0) {
+                throw new OptimisticLockingFailureException("Status of order " + id + " changed from " + current);
+            }
+            orderReadCache.evict(id);
+            List<OrderItem> items = orderItemRepository.findByOrderId(id);
+            // Only confirmed orders hold stock; a PENDING order still being reserved gives its
+            // stock back when the reservation finishes (see confirmReservedOrder)
+            if (next == Order.OrderStatus.CANCELLED && current == Order.OrderStatus.CONFIRMED) {
+                // Returned by the outbox dispatcher; the events commit together with the cancellation
+                outboxService.enqueueStockReleases(id, stockItems(items));
+            }
+            OrderResponse order = orderRepository.findResponseById(id).orElseThrow();
+            order.setItems(items.stream().map(OrderItemResponse::new).toList());
+            userOrderSummaryService.recordStatusChange(order.getUserId(),
+                    new OrderHeader(id, next, order.getTotalAmount(), order.getCreatedAt()), current);
+            return order;
+        }));
+        if (next == Order.OrderStatus.CANCELLED) {
+            orderMetrics.cancelled("requested");
         }
+        return changed;
+    }
 
-        // DELIVERED
-        if (current == Order.OrderStatus.DELIVERED) {
-            throw new RuntimeException("The status of a delivered order cannot be changed.");
+    // Bounded retries for optimistic-lock conflicts; a caller that keeps losing gets a 409
+    private <T> T retryOnConflict(Long orderId, Supplier<T> attempt) {
+        for (int attempts = 1; ; attempts++) {
+            try {
+                return attempt.get();
+            } catch (OptimisticLockingFailureException e) {
+                if (attempts >= statusUpdateMaxAttempts) {
+                    log.warn("Giving up on order {} after {} conflicting updates", orderId, attempts);
+                    throw new OrderConflictException(orderId);
+                }
+                log.debug("Conflicting update on order {}, retrying: {}", orderId, e.getMessage());
+                // Short jitter so the writers that collided do not collide again
+                LockSupport.parkNanos(ThreadLocalRandom.current().nextLong(100_000, 1_000_000L * attempts));
+            }
         }
+    }
 
-        // CANCELLED
-        if (current == Order.OrderStatus.CANCELLED) {
-            throw new RuntimeException("The status of a cancelled order cannot be changed.");
+    @Transactional
+    public void deleteOrder(Long id) {
+        log.info("Deleting order: {}", id);
+        Order order = findOrder(id);
+        userOrderSummaryService.recordDeleted(order.getUserId(), header(order, order.getStatus()));
+        orderRepository.delete(order);
+        orderReadCache.evict(id);
+        readYourWritesGuard.recordWrite();
+        log.info("Order successfully deleted");
+    }
+
+    // Constant-time matrix lookup; rejections reuse a preallocated stackless exception
+    private void validateStatusTransition(Order.OrderStatus current, Order.OrderStatus newStatus) {
+        if (!current.canTransitionTo(newStatus)) {
+            throw InvalidStatusTransitionException.of(current, newStatus);
         }
     }
 }
@@ -0,0 +1,98 @@
+package sahe.com.orderservice.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import sahe.com.orderservice.client.AvailabilityResponse;
+import sahe.com.orderservice.client.InventoryClient;
+import sahe.com.orderservice.client.ProductResponse;
+import sahe.com.orderservice.dto.OrderItemRequest;
+import sahe.com.orderservice.dto.OrderRequest;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+/**
+ * Remote validation stage of order creation. Every distinct product is fetched once (from the
+ * {@link ProductCatalog} cache when possible) and all product and availability lookups run
+ * concurrently; the first failure cancels the rest.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class OrderValidator {
+
+    private final ProductCatalog productCatalog;
+    private final InventoryClient inventoryClient;
+
+    @Qualifier("remoteCallExecutor")
+    private final Executor remoteCallExecutor;
+
+    /**
+     * Validates every line of the request and returns the fetched products keyed by id,
+     * so the caller can build the order items without calling product-service again.
+     */
+    public Map<Long, ProductResponse> validate(OrderRequest request) {
+        // Lines for the same product are checked against inventory as one combined quantity
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for (OrderItemRequest itemRequest : request.getItems()) {
+            quantities.merge(itemRequest.getProductId(), itemRequest.getQuantity(), Integer::sum);
+        }
+        log.info("Validating {} products for user: {}", quantities.size(), request.getUserId());
+
+        Map<Long, ProductResponse> products = new ConcurrentHashMap<>();
+        CompletionService<Void> completion = new ExecutorCompletionService<>(remoteCallExecutor);
+        List<Future<Void>> calls = new ArrayList<>(quantities.size() * 2);
+        quantities.forEach((productId, quantity) -> {
+            calls.add(completion.submit(() -> fetchProduct(productId, products)));
+            calls.add(completion.submit(() -> checkAvailability(productId, quantity, products)));
+        });
+
+        try {
+            for (int i = 0; i < calls.size(); i++) {
+                completion.take().get();
+            }
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Order validation was interrupted");
+        } finally {
+            calls.forEach(call -> call.cancel(true));
+        }
+        return products;
+    }
+
+    private Void fetchProduct(Long productId, Map<Long, ProductResponse> products) {
+        ProductResponse product = productCatalog.getProduct(productId);
+        if (!product.getActive()) {
+            throw new RuntimeException("Product " + product.getName() + " is not active");
+        }
+        products.put(productId, product);
+        return null;
+    }
+
+    private Void checkAvailability(Long productId, Integer quantity, Map<Long, ProductResponse> products) {
+        AvailabilityResponse availability = inventoryClient.checkAvailability(productId, quantity);
+        if (!availability.getAvailable()) {
+            ProductResponse product = products.get(productId);
+            String name = product != null ? product.getName() : String.valueOf(productId);
+            throw new RuntimeException("Insufficient stock of product: " + name);
+        }
+        return null;
+    }
+
+    private RuntimeException unwrap(Throwable cause) {
+        if (cause instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return new RuntimeException(cause.getMessage(), cause);
+    }
+}
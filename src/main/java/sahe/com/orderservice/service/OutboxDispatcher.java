@@ -0,0 +1,225 @@
+package sahe.com.orderservice.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import sahe.com.orderservice.client.BatchStockItem;
+import sahe.com.orderservice.client.InventoryClient;
+import sahe.com.orderservice.client.StockUpdateRequest;
+import sahe.com.orderservice.exception.DownstreamUnavailableException;
+import sahe.com.orderservice.model.OutboxEvent;
+import sahe.com.orderservice.repository.OutboxEventRepository;
+import sahe.com.orderservice.security.AuthorizationContext;
+import sahe.com.orderservice.security.ServiceCredentials;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains the outbox: claims due events in batches (a lease keeps other instances off them),
+ * carries them out with bounded parallelism and retries failures with exponential backoff.
+ * A STOCK_RELEASE is sent with the event id as its Idempotency-Key, so a retry after a lost
+ * answer does not return the stock twice. A STOCK_RESERVE carries no such key: when its answer
+ * is lost the event is marked FAILED at once instead of risking a second reservation.
+ * There is no caller to forward a JWT from, so events are carried out with the service token
+ * ({@link ServiceCredentials}).
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "outbox.dispatcher.enabled", matchIfMissing = true)
+public class OutboxDispatcher {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final InventoryClient inventoryClient;
+    private final OrderService orderService;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Executor remoteCallExecutor;
+    private final MeterRegistry meterRegistry;
+    private final ServiceCredentials serviceCredentials;
+
+    @Value("${outbox.dispatcher.batch-size:100}")
+    private int batchSize = 100;
+
+    @Value("${outbox.dispatcher.parallelism:8}")
+    private int parallelism = 8;
+
+    @Value("${outbox.dispatcher.lease:1m}")
+    private Duration lease = Duration.ofMinutes(1);
+
+    @Value("${outbox.retry.max-attempts:10}")
+    private int maxAttempts = 10;
+
+    @Value("${outbox.retry.initial-backoff:1s}")
+    private Duration initialBackoff = Duration.ofSeconds(1);
+
+    @Value("${outbox.retry.max-backoff:5m}")
+    private Duration maxBackoff = Duration.ofMinutes(5);
+
+    private final AtomicLong backlog = new AtomicLong();
+    private final AtomicLong lagMillis = new AtomicLong();
+
+    public OutboxDispatcher(OutboxEventRepository outboxEventRepository,
+                            InventoryClient inventoryClient,
+                            OrderService orderService,
+                            TransactionTemplate transactionTemplate,
+                            ObjectMapper objectMapper,
+                            @Qualifier("remoteCallExecutor") Executor remoteCallExecutor,
+                            MeterRegistry meterRegistry,
+                            ServiceCredentials serviceCredentials) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.inventoryClient = inventoryClient;
+        this.orderService = orderService;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.remoteCallExecutor = remoteCallExecutor;
+        this.meterRegistry = meterRegistry;
+        this.serviceCredentials = serviceCredentials;
+        Gauge.builder("order.outbox.backlog", backlog, AtomicLong::get)
+                .description("Outbox events waiting to be dispatched")
+                .register(meterRegistry);
+        TimeGauge.builder("order.outbox.lag", lagMillis, TimeUnit.MILLISECONDS, AtomicLong::get)
+                .description("Age of the oldest outbox event waiting to be dispatched")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.dispatcher.poll-interval-ms:1000}")
+    public void dispatch() {
+        List<OutboxEvent> batch;
+        do {
+            batch = claim();
+            process(batch);
+        } while (batch.size() == batchSize);
+        updateBacklogMetrics();
+    }
+
+    private List<OutboxEvent> claim() {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<OutboxEvent> due = outboxEventRepository.findDue(now, PageRequest.ofSize(batchSize));
+            due.forEach(event -> event.setLockedUntil(now.plus(lease)));
+            return due;
+        });
+    }
+
+    private void process(List<OutboxEvent> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        log.info("Dispatching {} outbox events", batch.size());
+        Semaphore permits = new Semaphore(parallelism);
+        List<FutureTask<Void>> tasks = new ArrayList<>(batch.size());
+        try {
+            for (OutboxEvent event : batch) {
+                permits.acquire();
+                FutureTask<Void> task = new FutureTask<>(() -> {
+                    try {
+                        AuthorizationContext.runAs(serviceCredentials.authorizationHeader(), () -> dispatchOne(event));
+                    } finally {
+                        permits.release();
+                    }
+                    return null;
+                });
+                remoteCallExecutor.execute(task);
+                tasks.add(task);
+            }
+            for (FutureTask<Void> task : tasks) {
+                task.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            log.error("Outbox dispatch task failed", e.getCause());
+        }
+    }
+
+    private void dispatchOne(OutboxEvent event) {
+        try {
+            handle(event);
+            transactionTemplate.executeWithoutResult(status ->
+                    outboxEventRepository.markDone(event.getId(), LocalDateTime.now()));
+            count(event, "success");
+        } catch (RuntimeException e) {
+            int attempts = event.getAttempts() + 1;
+            boolean ambiguous = event.getType() == OutboxEvent.Type.STOCK_RESERVE && responseLost(e);
+            boolean giveUp = ambiguous || attempts >= maxAttempts;
+            LocalDateTime nextAttemptAt = LocalDateTime.now().plus(backoff(attempts));
+            String error = e.getMessage() != null && e.getMessage().length() > MAX_ERROR_LENGTH
+                    ? e.getMessage().substring(0, MAX_ERROR_LENGTH) : e.getMessage();
+            transactionTemplate.executeWithoutResult(status -> outboxEventRepository.markAttemptFailed(
+                    event.getId(), giveUp ? OutboxEvent.Status.FAILED : OutboxEvent.Status.PENDING,
+                    attempts, nextAttemptAt, error));
+            if (ambiguous) {
+                log.error("Giving up on outbox event {} ({} for order {}): no answer from inventory-service, "
+                        + "the reservation may have been applied", event.getId(), event.getType(),
+                        event.getAggregateId(), e);
+                count(event, "failed");
+            } else if (giveUp) {
+                log.error("Giving up on outbox event {} ({} for order {}) after {} attempts",
+                        event.getId(), event.getType(), event.getAggregateId(), attempts, e);
+                count(event, "failed");
+            } else {
+                log.warn("Outbox event {} ({} for order {}) failed, attempt {}: {}",
+                        event.getId(), event.getType(), event.getAggregateId(), attempts, e.getMessage());
+                count(event, "retry");
+            }
+        }
+    }
+
+    private void handle(OutboxEvent event) {
+        switch (event.getType()) {
+            case STOCK_RELEASE -> {
+                BatchStockItem item = objectMapper.readValue(event.getPayload(), BatchStockItem.class);
+                inventoryClient.addStock(item.getProductId(), idempotencyKey(event),
+                        new StockUpdateRequest(item.getQuantity(), "Order #" + event.getAggregateId() + " cancelled"));
+            }
+            case STOCK_RESERVE -> orderService.reserveStock(event.getAggregateId());
+        }
+    }
+
+    static String idempotencyKey(OutboxEvent event) {
+        return "outbox-" + event.getId();
+    }
+
+    // The request went out but no answer came back, so inventory-service may have applied it
+    private static boolean responseLost(RuntimeException e) {
+        return e instanceof DownstreamUnavailableException && e.getCause() instanceof IOException;
+    }
+
+    // initial-backoff, doubled per attempt, capped at max-backoff
+    Duration backoff(int attempts) {
+        Duration backoff = initialBackoff.multipliedBy(1L << Math.min(attempts - 1, 30));
+        return backoff.compareTo(maxBackoff) > 0 ? maxBackoff : backoff;
+    }
+
+    private void updateBacklogMetrics() {
+        backlog.set(outboxEventRepository.countByStatus(OutboxEvent.Status.PENDING));
+        LocalDateTime oldest = outboxEventRepository.findOldestCreatedAt(OutboxEvent.Status.PENDING);
+        lagMillis.set(oldest == null ? 0 : Math.max(0, Duration.between(oldest, LocalDateTime.now()).toMillis()));
+    }
+
+    private void count(OutboxEvent event, String outcome) {
+        meterRegistry.counter("order.outbox.dispatched", "type", event.getType().name(), "outcome", outcome)
+                .increment();
+    }
+}
@@ -0,0 +1,51 @@
+package sahe.com.orderservice.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import sahe.com.orderservice.client.BatchStockItem;
+import sahe.com.orderservice.model.OutboxEvent;
+import sahe.com.orderservice.repository.OutboxEventRepository;
+import tools.jackson.databind.ObjectMapper;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * Write side of the transactional outbox. Events must be added inside the transaction that
+ * changes the order, so both commit or neither does.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class OutboxService {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueStockReserve(Long orderId) {
+        enqueue(OutboxEvent.Type.STOCK_RESERVE, orderId, null);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueStockReleases(Long orderId, Collection<BatchStockItem> items) {
+        for (BatchStockItem item : items) {
+            enqueue(OutboxEvent.Type.STOCK_RELEASE, orderId, objectMapper.writeValueAsString(item));
+        }
+        log.info("Queued stock release of {} products for order {}", items.size(), orderId);
+    }
+
+    private void enqueue(OutboxEvent.Type type, Long orderId, String payload) {
+        LocalDateTime now = LocalDateTime.now();
+        OutboxEvent event = new OutboxEvent();
+        event.setType(type);
+        event.setAggregateId(orderId);
+        event.setPayload(payload);
+        event.setNextAttemptAt(now);
+        event.setCreatedAt(now);
+        outboxEventRepository.save(event);
+    }
+}
@@ -0,0 +1,85 @@
+package sahe.com.orderservice.service;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import sahe.com.orderservice.client.ProductClient;
+import sahe.com.orderservice.client.ProductResponse;
+
+import java.time.Duration;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Bounded in-process cache of product-service lookups, keyed by product id.
+ * <p>
+ * Staleness bound: an entry is never served once it is older than {@code product.cache.ttl}.
+ * After {@code product.cache.refresh-after} the next read still returns the cached entry and
+ * reloads it in the background, so a price change reaches {@code OrderItem.unitPrice} within
+ * the TTL at the latest, usually within refresh-after plus one order. Invalidating a product
+ * (admin endpoint) makes the next order read it from product-service.
+ * <p>
+ * Loads run on {@code remoteCallExecutor}, not inside the cache's map lock: a product-service
+ * call under that {@code synchronized} lock would pin a virtual thread to its carrier for the
+ * whole round trip. Concurrent misses for one product share a single load.
+ */
+@Component
+@Slf4j
+public class ProductCatalog {
+
+    public static final String CACHE_NAME = "product.catalog";
+
+    private final AsyncLoadingCache<Long, ProductResponse> products;
+
+    @Autowired
+    public ProductCatalog(ProductClient productClient,
+                          @Qualifier("remoteCallExecutor") Executor remoteCallExecutor,
+                          MeterRegistry meterRegistry,
+                          @Value("${product.cache.maximum-size:10000}") long maximumSize,
+                          @Value("${product.cache.ttl:5m}") Duration ttl,
+                          @Value("${product.cache.refresh-after:1m}") Duration refreshAfter) {
+        this(productClient, remoteCallExecutor, meterRegistry, maximumSize, ttl, refreshAfter, Ticker.systemTicker());
+    }
+
+    ProductCatalog(ProductClient productClient, Executor loadExecutor, MeterRegistry meterRegistry,
+                   long maximumSize, Duration ttl, Duration refreshAfter, Ticker ticker) {
+        this.products = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .refreshAfterWrite(refreshAfter)
+                .executor(loadExecutor)
+                .ticker(ticker)
+                .recordStats()
+                .buildAsync(productClient::getProductById);
+        CaffeineCacheMetrics.monitor(meterRegistry, products, CACHE_NAME);
+    }
+
+    public ProductResponse getProduct(Long productId) {
+        try {
+            return products.get(productId).join();
+        } catch (CompletionException e) {
+            // The caller handles product-service errors (404, 503) as if the call were its own
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    public void invalidate(Long productId) {
+        log.info("Invalidating cached product: {}", productId);
+        products.synchronous().invalidate(productId);
+    }
+
+    public void invalidateAll() {
+        log.info("Invalidating all cached products");
+        products.synchronous().invalidateAll();
+    }
+}
@@ -0,0 +1,83 @@
+package sahe.com.orderservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Decides which read-only work must not go to a replica, which may lag the primary (see
+ * ReplicaRoutingDataSource):
+ * <ul>
+ *   <li>reads of a caller who changed an order less than {@code order.replicas.read-your-writes}
+ *   ago on this instance, so they see their own writes;</li>
+ *   <li>reads inside {@link #onPrimary}, for results that are cached longer than a replica lags.</li>
+ * </ul>
+ */
+@Component
+public class ReadYourWritesGuard {
+
+    private static final long MAX_TRACKED_CALLERS = 100_000;
+
+    private static final ThreadLocal<Boolean> PRIMARY_SCOPE = new ThreadLocal<>();
+
+    private final boolean enabled;
+
+    // Callers (authentication name) that wrote within the window
+    private final Cache<String, Boolean> recentWriters;
+
+    public ReadYourWritesGuard(@Value("${order.replicas.enabled:false}") boolean enabled,
+                               @Value("${order.replicas.read-your-writes:10s}") Duration window) {
+        this.enabled = enabled;
+        this.recentWriters = Caffeine.newBuilder()
+                .maximumSize(MAX_TRACKED_CALLERS)
+                .expireAfterWrite(window)
+                .build();
+    }
+
+    /** Keeps the current caller's reads on the primary for the read-your-writes window. */
+    public void recordWrite() {
+        if (!enabled) {
+            return;
+        }
+        String caller = caller();
+        if (caller != null) {
+            recentWriters.put(caller, Boolean.TRUE);
+        }
+    }
+
+    public boolean requiresPrimary() {
+        if (PRIMARY_SCOPE.get() != null) {
+            return true;
+        }
+        String caller = caller();
+        return caller != null && recentWriters.getIfPresent(caller) != null;
+    }
+
+    /** Runs {@code read} with every connection it takes coming from the primary. */
+    public static <T> T onPrimary(Supplier<T> read) {
+        if (PRIMARY_SCOPE.get() != null) {
+            return read.get();
+        }
+        PRIMARY_SCOPE.set(Boolean.TRUE);
+        try {
+            return read.get();
+        } finally {
+            PRIMARY_SCOPE.remove();
+        }
+    }
+
+    private static String caller() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+}
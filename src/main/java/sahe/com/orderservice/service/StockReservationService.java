@@ -0,0 +1,194 @@
+package sahe.com.orderservice.service;
+
+import feign.FeignException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import sahe.com.orderservice.client.*;
+import sahe.com.orderservice.exception.DownstreamUnavailableException;
+import sahe.com.orderservice.exception.StockReservationException;
+import sahe.com.orderservice.model.OrderItem;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Reserves (reduces) stock for all lines of an order. Uses the batch endpoint of
+ * inventory-service so an order costs one round trip; when the endpoint is not available
+ * it falls back to single-product calls with bounded parallelism. A 404 from the batch is
+ * retried as single calls for that order: an unknown product fails its line, and only when
+ * every line then succeeds is the endpoint taken as missing.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class StockReservationService {
+
+    private final InventoryClient inventoryClient;
+
+    @Qualifier("remoteCallExecutor")
+    private final Executor remoteCallExecutor;
+
+    @Value("${inventory.reservation.fallback-parallelism:8}")
+    private int fallbackParallelism = 8;
+
+    @Value("${inventory.reservation.batch-probe-interval:10m}")
+    private Duration batchProbeInterval = Duration.ofMinutes(10);
+
+    // While in the future, the batch endpoint is skipped because inventory-service rejected it
+    private volatile long batchUnsupportedUntil;
+
+    public List<StockReservationResult> reserve(Long orderId, List<OrderItem> items) {
+        String reason = "Order #" + orderId;
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for (OrderItem item : items) {
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+        List<BatchStockItem> stockItems = new ArrayList<>(quantities.size());
+        quantities.forEach((productId, quantity) -> stockItems.add(new BatchStockItem(productId, quantity)));
+
+        List<StockReservationResult> results = null;
+        boolean batchNotFound = false;
+        if (System.currentTimeMillis() >= batchUnsupportedUntil) {
+            try {
+                results = reserveBatch(stockItems, reason);
+            } catch (FeignException.NotFound e) {
+                // A missing endpoint or an unknown product: the single calls tell which
+                batchNotFound = true;
+            } catch (FeignException.MethodNotAllowed | FeignException.NotImplemented e) {
+                skipBatch(e.status());
+            }
+        }
+        if (results == null) {
+            results = reserveIndividually(stockItems, reason);
+            if (batchNotFound && results.stream().allMatch(result -> Boolean.TRUE.equals(result.getSuccess()))) {
+                skipBatch(404);
+            }
+        }
+
+        for (StockReservationResult result : results) {
+            if (!Boolean.TRUE.equals(result.getSuccess())) {
+                log.error("ERROR reducing stock for product {}: {}", result.getProductId(), result.getMessage());
+                throw new StockReservationException("Failed to reduce stock for product "
+                        + result.getProductId() + ": " + result.getMessage(), results);
+            }
+        }
+        log.info("Stock reduced for {} products of order {}", results.size(), orderId);
+        return results;
+    }
+
+    private List<StockReservationResult> reserveBatch(List<BatchStockItem> stockItems, String reason) {
+        log.info("Reducing stock for {} products in one batch ({})", stockItems.size(), reason);
+        List<StockReservationResult> results =
+                inventoryClient.reduceStockBatch(new BatchStockUpdateRequest(stockItems, reason));
+        return matchLines(stockItems, results != null ? results : List.of());
+    }
+
+    // The batch must answer every requested line once, with its quantity. Otherwise the order
+    // fails; the lines reported as reserved are still in the exception, so they are released
+    private static List<StockReservationResult> matchLines(List<BatchStockItem> stockItems,
+                                                           List<StockReservationResult> results) {
+        Map<Long, Integer> missing = new LinkedHashMap<>();
+        stockItems.forEach(stockItem -> missing.put(stockItem.getProductId(), stockItem.getQuantity()));
+        List<Long> unexpected = new ArrayList<>();
+        for (StockReservationResult result : results) {
+            Integer quantity = missing.remove(result.getProductId());
+            if (quantity == null || !quantity.equals(result.getQuantity())) {
+                unexpected.add(result.getProductId());
+            }
+        }
+        if (!missing.isEmpty() || !unexpected.isEmpty()) {
+            log.error("Batch stock reduction answered lines {} that were not requested and left out {}",
+                    unexpected, missing.keySet());
+            throw new StockReservationException("Inventory-service did not answer every line of the order "
+                    + "(unexpected " + unexpected + ", missing " + missing.keySet() + ")", results);
+        }
+        return results;
+    }
+
+    private void skipBatch(int status) {
+        log.warn("Batch stock reduction not supported by inventory-service ({}), using single calls for the next {}",
+                status, batchProbeInterval);
+        batchUnsupportedUntil = System.currentTimeMillis() + batchProbeInterval.toMillis();
+    }
+
+    private List<StockReservationResult> reserveIndividually(List<BatchStockItem> stockItems, String reason) {
+        Semaphore permits = new Semaphore(fallbackParallelism);
+        List<FutureTask<StockReservationResult>> calls = new ArrayList<>(stockItems.size());
+        try {
+            for (BatchStockItem stockItem : stockItems) {
+                permits.acquire();
+                FutureTask<StockReservationResult> call = new FutureTask<>(() -> {
+                    try {
+                        return reserveOne(stockItem, reason);
+                    } finally {
+                        permits.release();
+                    }
+                });
+                remoteCallExecutor.execute(call);
+                calls.add(call);
+            }
+
+            List<StockReservationResult> results = new ArrayList<>(calls.size());
+            DownstreamUnavailableException unavailable = null;
+            for (int i = 0; i < calls.size(); i++) {
+                try {
+                    results.add(calls.get(i).get());
+                } catch (ExecutionException e) {
+                    if (!(e.getCause() instanceof DownstreamUnavailableException lineUnavailable)) {
+                        throw new RuntimeException("Failed to reduce stock: " + e.getCause().getMessage(), e.getCause());
+                    }
+                    unavailable = lineUnavailable;
+                    BatchStockItem stockItem = stockItems.get(i);
+                    results.add(new StockReservationResult(stockItem.getProductId(), stockItem.getQuantity(),
+                            false, null, lineUnavailable.getMessage()));
+                }
+            }
+            if (unavailable != null && results.stream().anyMatch(result -> Boolean.TRUE.equals(result.getSuccess()))) {
+                // Carries the lines that went through so they are released
+                throw new StockReservationException("Failed to reduce stock: " + unavailable.getMessage(),
+                        results, unavailable);
+            }
+            if (unavailable != null) {
+                throw unavailable;
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Stock reduction was interrupted");
+        }
+    }
+
+    private StockReservationResult reserveOne(BatchStockItem stockItem, String reason) {
+        try {
+            log.info("Attempting to reduce stock for product {} by {} units",
+                    stockItem.getProductId(), stockItem.getQuantity());
+            InventoryResponse reducedInventory = inventoryClient.reduceStockByProductId(
+                    stockItem.getProductId(),
+                    new StockUpdateRequest(stockItem.getQuantity(), reason)
+            );
+            log.info("Stock reduced successfully for product: {}. New quantity: {}",
+                    stockItem.getProductId(), reducedInventory.getQuantity());
+            return new StockReservationResult(stockItem.getProductId(), stockItem.getQuantity(),
+                    true, reducedInventory.getQuantity(), null);
+        } catch (DownstreamUnavailableException e) {
+            // Not a rejection of this line: inventory-service was not called or did not answer
+            throw e;
+        } catch (FeignException.NotFound e) {
+            return new StockReservationResult(stockItem.getProductId(), stockItem.getQuantity(),
+                    false, null, "Product not found in inventory");
+        } catch (Exception e) {
+            return new StockReservationResult(stockItem.getProductId(), stockItem.getQuantity(),
+                    false, null, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package sahe.com.orderservice.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import sahe.com.orderservice.dto.OrderStatusTotal;
+import sahe.com.orderservice.model.UserOrderSummary;
+import sahe.com.orderservice.repository.OrderRepository;
+import sahe.com.orderservice.repository.UserOrderSummaryRepository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Detects summaries that drifted from orders (a failed write, a manual fix in the database) and
+ * rebuilds them: compares every summary page with one aggregate query over its users' orders,
+ * then creates the summaries of users that have orders but none yet.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "order.summary.reconcile.enabled", matchIfMissing = true)
+public class UserOrderSummaryReconciler {
+
+    private final UserOrderSummaryRepository summaryRepository;
+    private final OrderRepository orderRepository;
+    private final UserOrderSummaryService summaryService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${order.summary.reconcile.batch-size:500}")
+    private int batchSize = 500;
+
+    @Scheduled(cron = "${order.summary.reconcile.cron:0 30 3 * * *}")
+    public void reconcile() {
+        int rebuilt = 0;
+        Long after = Long.MIN_VALUE;
+        List<UserOrderSummary> page;
+        do {
+            page = summaryRepository.findPageAfter(after, PageRequest.ofSize(batchSize));
+            if (page.isEmpty()) {
+                break;
+            }
+            List<Long> userIds = page.stream().map(UserOrderSummary::getUserId).toList();
+            Map<Long, List<OrderStatusTotal>> totals = new HashMap<>(userIds.size() * 2);
+            for (OrderStatusTotal total : orderRepository.findStatusTotalsByUserIdIn(userIds)) {
+                totals.computeIfAbsent(total.userId(), key -> new ArrayList<>()).add(total);
+            }
+            for (UserOrderSummary summary : page) {
+                if (UserOrderSummaryService.drifted(summary, totals.getOrDefault(summary.getUserId(), List.of()))) {
+                    rebuilt += rebuild(summary.getUserId());
+                }
+            }
+            after = userIds.get(userIds.size() - 1);
+        } while (page.size() == batchSize);
+
+        List<Long> missing;
+        after = Long.MIN_VALUE;
+        do {
+            missing = orderRepository.findUserIdsWithoutSummary(after, PageRequest.ofSize(batchSize));
+            for (Long userId : missing) {
+                rebuilt += rebuild(userId);
+            }
+            after = missing.isEmpty() ? after : missing.get(missing.size() - 1);
+        } while (missing.size() == batchSize);
+
+        log.info("Order summary reconciliation finished, {} summaries rebuilt", rebuilt);
+    }
+
+    private int rebuild(Long userId) {
+        try {
+            summaryService.rebuild(userId);
+            meterRegistry.counter("order.summary.rebuilt").increment();
+            return 1;
+        } catch (RuntimeException e) {
+            log.error("Could not rebuild order summary of user {}", userId, e);
+            return 0;
+        }
+    }
+}
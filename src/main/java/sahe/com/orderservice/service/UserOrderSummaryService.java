@@ -0,0 +1,231 @@
+package sahe.com.orderservice.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import sahe.com.orderservice.dto.OrderHeader;
+import sahe.com.orderservice.dto.OrderStatusRow;
+import sahe.com.orderservice.dto.OrderStatusTotal;
+import sahe.com.orderservice.dto.UserOrderSummaryResponse;
+import sahe.com.orderservice.model.Order;
+import sahe.com.orderservice.model.UserOrderSummary;
+import sahe.com.orderservice.repository.OrderRepository;
+import sahe.com.orderservice.repository.UserOrderSummaryRepository;
+import tools.jackson.databind.ObjectMapper;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Maintains the per-user order summaries. The record methods must run inside the transaction
+ * that changes the orders: they lock the user's summary row, apply the change as a delta and
+ * commit with it. A user without a summary yet is skipped; the summary is built from orders on
+ * its first read (or by UserOrderSummaryReconciler), which already includes the change.
+ */
+@Service
+@Slf4j
+public class UserOrderSummaryService {
+
+    private final UserOrderSummaryRepository summaryRepository;
+    private final OrderRepository orderRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    // Order headers kept in each summary
+    @Value("${order.summary.recent-orders:5}")
+    private int recentOrders = 5;
+
+    public UserOrderSummaryService(UserOrderSummaryRepository summaryRepository, OrderRepository orderRepository,
+                                   ObjectMapper objectMapper, PlatformTransactionManager transactionManager) {
+        this.summaryRepository = summaryRepository;
+        this.orderRepository = orderRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // One primary-key read; only the first read of a user builds the summary from orders
+    public UserOrderSummaryResponse getSummary(Long userId) {
+        log.info("Get order summary of user: {}", userId);
+        return toResponse(summaryRepository.findById(userId).orElseGet(() -> build(userId)));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordCreated(Order order) {
+        Optional<UserOrderSummary> locked = summaryRepository.findForUpdate(order.getUserId());
+        if (locked.isEmpty()) {
+            return;
+        }
+        UserOrderSummary summary = locked.get();
+        summary.adjustCount(order.getStatus(), 1);
+        if (order.getStatus() != Order.OrderStatus.CANCELLED) {
+            summary.setLifetimeSpend(summary.getLifetimeSpend().add(order.getTotalAmount()));
+        }
+        List<OrderHeader> headers = new ArrayList<>(headers(summary));
+        headers.addFirst(new OrderHeader(order.getId(), order.getStatus(), order.getTotalAmount(),
+                Objects.requireNonNullElseGet(order.getCreatedAt(), LocalDateTime::now)));
+        save(summary, headers);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordStatusChange(Long userId, OrderHeader order, Order.OrderStatus from) {
+        Optional<UserOrderSummary> locked = summaryRepository.findForUpdate(userId);
+        if (locked.isEmpty()) {
+            return;
+        }
+        UserOrderSummary summary = locked.get();
+        apply(summary, order, from);
+        List<OrderHeader> headers = new ArrayList<>(headers(summary));
+        headers.replaceAll(header -> header.id().equals(order.id()) ? order : header);
+        save(summary, headers);
+    }
+
+    /** Bulk variant: every row moved from {@code from} to {@code to}; one lock per user. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordStatusChanges(Collection<OrderStatusRow> orders, Order.OrderStatus from, Order.OrderStatus to) {
+        // Users in id order, so concurrent bulk changes take the summary locks in the same order
+        Map<Long, Map<Long, OrderHeader>> byUser = new TreeMap<>();
+        for (OrderStatusRow order : orders) {
+            byUser.computeIfAbsent(order.userId(), key -> new HashMap<>()).put(order.id(), order.header(to));
+        }
+        byUser.forEach((userId, changed) -> summaryRepository.findForUpdate(userId).ifPresent(summary -> {
+            changed.values().forEach(order -> apply(summary, order, from));
+            List<OrderHeader> headers = new ArrayList<>(headers(summary));
+            headers.replaceAll(header -> changed.getOrDefault(header.id(), header));
+            save(summary, headers);
+        }));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordDeleted(Long userId, OrderHeader order) {
+        Optional<UserOrderSummary> locked = summaryRepository.findForUpdate(userId);
+        if (locked.isEmpty()) {
+            return;
+        }
+        UserOrderSummary summary = locked.get();
+        summary.adjustCount(order.status(), -1);
+        if (order.status() != Order.OrderStatus.CANCELLED) {
+            summary.setLifetimeSpend(summary.getLifetimeSpend().subtract(order.totalAmount()));
+        }
+        // Refill the recent list from orders (one indexed query) instead of leaving a gap
+        List<OrderHeader> headers = new ArrayList<>(recentHeaders(userId, recentOrders + 1));
+        headers.removeIf(header -> header.id().equals(order.id()));
+        save(summary, headers);
+    }
+
+    /** Recomputes a user's existing summary from orders as the calling transaction sees them. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordRecount(Long userId) {
+        summaryRepository.findForUpdate(userId).ifPresent(this::recount);
+    }
+
+    /** Recomputes the summary of a user from orders, creating it if needed. */
+    @Transactional
+    public void rebuild(Long userId) {
+        log.info("Rebuilding order summary of user: {}", userId);
+        recount(summaryRepository.findForUpdate(userId).orElseGet(() -> new UserOrderSummary(userId)));
+    }
+
+    /** Whether the stored counts and spend differ from the orders they summarize. */
+    static boolean drifted(UserOrderSummary summary, List<OrderStatusTotal> totals) {
+        UserOrderSummary expected = new UserOrderSummary(summary.getUserId());
+        recompute(expected, totals);
+        for (Order.OrderStatus status : Order.OrderStatus.values()) {
+            if (expected.getCount(status) != summary.getCount(status)) {
+                return true;
+            }
+        }
+        return expected.getLifetimeSpend().compareTo(summary.getLifetimeSpend()) != 0;
+    }
+
+    private static void recompute(UserOrderSummary summary, List<OrderStatusTotal> totals) {
+        summary.clearCounts();
+        for (OrderStatusTotal total : totals) {
+            summary.adjustCount(total.status(), total.count());
+            if (total.status() != Order.OrderStatus.CANCELLED) {
+                summary.setLifetimeSpend(summary.getLifetimeSpend().add(total.total()));
+            }
+        }
+    }
+
+    private void apply(UserOrderSummary summary, OrderHeader order, Order.OrderStatus from) {
+        summary.adjustCount(from, -1);
+        summary.adjustCount(order.status(), 1);
+        if (order.status() == Order.OrderStatus.CANCELLED && from != Order.OrderStatus.CANCELLED) {
+            summary.setLifetimeSpend(summary.getLifetimeSpend().subtract(order.totalAmount()));
+        }
+    }
+
+    // Locked (or new) summary: recounted after the lock, so changes waiting on it apply on top
+    private void recount(UserOrderSummary summary) {
+        recompute(summary, orderRepository.findStatusTotalsByUserIdIn(List.of(summary.getUserId())));
+        save(summary, recentHeaders(summary.getUserId(), recentOrders));
+    }
+
+    // The row is committed empty before counting, so orders created from then on find it and
+    // wait on its lock; the recount takes that lock and sees every order committed before it.
+    // (Counting first lost orders that skipped the missing row and committed after the count.)
+    // An order that checked before the row existed and commits after the recount is left to
+    // UserOrderSummaryReconciler
+    private UserOrderSummary build(Long userId) {
+        if (orderRepository.findStatusTotalsByUserIdIn(List.of(userId)).isEmpty()) {
+            UserOrderSummary empty = new UserOrderSummary(userId);
+            empty.setUpdatedAt(LocalDateTime.now());
+            return empty;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                UserOrderSummary summary = new UserOrderSummary(userId);
+                summary.setUpdatedAt(LocalDateTime.now());
+                summaryRepository.saveAndFlush(summary);
+            });
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Order summary of user {} was created concurrently", userId);
+        }
+        return transactionTemplate.execute(status -> {
+            UserOrderSummary summary = summaryRepository.findForUpdate(userId).orElseThrow();
+            recount(summary);
+            return summary;
+        });
+    }
+
+    private List<OrderHeader> recentHeaders(Long userId, int count) {
+        return orderRepository.findRecentHeaders(userId, PageRequest.ofSize(count));
+    }
+
+    private List<OrderHeader> headers(UserOrderSummary summary) {
+        return Arrays.asList(objectMapper.readValue(summary.getRecentOrders(), OrderHeader[].class));
+    }
+
+    private void save(UserOrderSummary summary, List<OrderHeader> headers) {
+        List<OrderHeader> recent = headers.size() > recentOrders ? headers.subList(0, recentOrders) : headers;
+        summary.setRecentOrders(objectMapper.writeValueAsString(recent));
+        summary.setUpdatedAt(LocalDateTime.now());
+        summaryRepository.save(summary);
+    }
+
+    private UserOrderSummaryResponse toResponse(UserOrderSummary summary) {
+        Map<Order.OrderStatus, Long> counts = new EnumMap<>(Order.OrderStatus.class);
+        long totalOrders = 0;
+        for (Order.OrderStatus status : Order.OrderStatus.values()) {
+            counts.put(status, summary.getCount(status));
+            totalOrders += summary.getCount(status);
+        }
+        return new UserOrderSummaryResponse(summary.getUserId(), counts, totalOrders, summary.getLifetimeSpend(),
+                headers(summary), summary.getUpdatedAt());
+    }
+}
@@ -0,0 +1,26 @@
+-- Added after the baseline: optimistic locking on orders, stored Idempotency-Key responses
+-- and the transactional outbox for inventory-service calls
+
+alter table orders add column version bigint default 0 not null;
+
+create table idempotency_keys (
+    idempotency_key varchar(100) primary key,
+    request_hash    varchar(64)  not null,
+    order_id        bigint,
+    response        text,
+    created_at      timestamp(6) not null
+);
+
+create table outbox_events (
+    id              bigint generated by default as identity primary key,
+    type            varchar(30)  not null check (type in ('STOCK_RESERVE', 'STOCK_RELEASE')),
+    aggregate_id    bigint       not null,
+    payload         text,
+    status          varchar(20)  not null check (status in ('PENDING', 'DONE', 'FAILED')),
+    attempts        integer      not null,
+    next_attempt_at timestamp(6) not null,
+    locked_until    timestamp(6),
+    last_error      varchar(1000),
+    created_at      timestamp(6) not null,
+    processed_at    timestamp(6)
+);
@@ -0,0 +1,27 @@
+-- Schema as hibernate ddl-auto=update left it. Databases created that way are baselined at
+-- this version (spring.flyway.baseline-on-migrate) and only receive the later migrations.
+
+create table orders (
+    id               bigint generated by default as identity primary key,
+    user_id          bigint         not null,
+    status           varchar(20)    not null
+        check (status in ('PENDING', 'CONFIRMED', 'SHIPPED', 'DELIVERED', 'CANCELLED')),
+    total_amount     numeric(10, 2) not null,
+    shipping_address varchar(500)   not null,
+    shipping_city    varchar(100)   not null,
+    shipping_country varchar(100)   not null,
+    payment_method   varchar(50),
+    notes            varchar(1000),
+    created_at       timestamp(6),
+    updated_at       timestamp(6)
+);
+
+create table order_items (
+    id           bigint generated by default as identity primary key,
+    order_id     bigint         not null references orders (id),
+    product_id   bigint         not null,
+    product_name varchar(200)   not null,
+    quantity     integer        not null,
+    unit_price   numeric(10, 2) not null,
+    subtotal     numeric(10, 2) not null
+);
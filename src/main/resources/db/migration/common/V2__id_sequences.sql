@@ -0,0 +1,8 @@
+-- Pooled id generators: Hibernate reserves INCREMENT BY ids per nextval, so inserts no longer
+-- need the generated key back and can be batched. The increment is the allocation size
+-- (hibernate.id.sequence.increment_size_mismatch_strategy=fix); change it with a new
+-- migration, not in code.
+
+create sequence orders_seq start with 1 increment by 50;
+create sequence order_items_seq start with 1 increment by 50;
+create sequence outbox_events_seq start with 1 increment by 50;
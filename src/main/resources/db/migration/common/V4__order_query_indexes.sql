@@ -0,0 +1,15 @@
+-- Indexes for the repository filters and the keyset pagination order (created_at desc, id desc)
+
+-- findByUserId, findResponsesByUserId, findPageByUserId, streamByUserId
+create index idx_orders_user_created on orders (user_id, created_at desc, id desc);
+-- findByUserIdAndStatus
+create index idx_orders_user_status on orders (user_id, status);
+-- findByStatus, findResponsesByStatus, findPageByStatus, streamByStatus, countByStatus
+create index idx_orders_status_created on orders (status, created_at desc, id desc);
+-- findPage
+create index idx_orders_created on orders (created_at desc, id desc);
+
+-- findByOrderId, findRowsByOrderIdIn (foreign keys are not indexed automatically)
+create index idx_order_items_order on order_items (order_id);
+-- findByProductId
+create index idx_order_items_product on order_items (product_id);
@@ -0,0 +1,15 @@
+-- Per-user read model (UserOrderSummary). Filled lazily: the first change to a user's orders
+-- builds the row from orders, and UserOrderSummaryReconciler creates missing rows.
+
+create table user_order_summaries (
+    user_id         bigint primary key,
+    pending_count   bigint         not null,
+    confirmed_count bigint         not null,
+    shipped_count   bigint         not null,
+    delivered_count bigint         not null,
+    cancelled_count bigint         not null,
+    lifetime_spend  numeric(14, 2) not null,
+    recent_orders   text           not null,
+    updated_at      timestamp(6)   not null,
+    version         bigint
+);
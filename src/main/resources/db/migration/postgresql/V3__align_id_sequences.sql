@@ -0,0 +1,8 @@
+-- Rows inserted through the identity columns keep their ids; new ids start after them.
+-- (Only needed where V1 was baselined on existing data.)
+-- Hibernate's pooled optimizer reads a nextval other than the start value as the top of a
+-- block and hands out the 50 ids below it, so the next value is max(id) + INCREMENT BY.
+
+select setval('orders_seq', coalesce(max(id), 0) + 50, false) from orders;
+select setval('order_items_seq', coalesce(max(id), 0) + 50, false) from order_items;
+select setval('outbox_events_seq', coalesce(max(id), 0) + 50, false) from outbox_events;
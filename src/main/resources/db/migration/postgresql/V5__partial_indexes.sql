@@ -0,0 +1,10 @@
+-- Partial indexes: only the rows the hot paths look for, so they stay small as history grows
+
+-- Orders still moving through fulfillment (status queues, bulk status changes): a few rows
+-- next to the DELIVERED and CANCELLED history that idx_orders_status_created also covers
+create index idx_orders_open_status_created on orders (status, created_at desc, id desc)
+    where status in ('PENDING', 'CONFIRMED', 'SHIPPED');
+
+-- OutboxEventRepository.findDue
+create index idx_outbox_events_due on outbox_events (next_attempt_at, id)
+    where status = 'PENDING';
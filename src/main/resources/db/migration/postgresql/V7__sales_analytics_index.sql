@@ -0,0 +1,4 @@
+-- Covering index for the sales analytics (OrderRepository.streamSalesBy*): a date range is
+-- aggregated with an index-only scan instead of reading every matching heap row
+create index idx_orders_created_sales on orders (created_at)
+    include (status, total_amount, shipping_country);
@@ -0,0 +1,137 @@
+package sahe.com.orderservice.client;
+
+import feign.FeignException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import sahe.com.orderservice.config.ResilienceProperties;
+import sahe.com.orderservice.exception.DownstreamUnavailableException;
+import sahe.com.orderservice.exception.GlobalExceptionHandler;
+import sahe.com.orderservice.support.StubInventoryServer;
+
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DownstreamGuardsTest {
+
+    private StubInventoryServer inventory;
+    private SimpleMeterRegistry meterRegistry;
+    private ResilienceProperties.Policy policy;
+    private DownstreamGuards guards;
+    private InventoryClient client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        inventory = new StubInventoryServer(100);
+        meterRegistry = new SimpleMeterRegistry();
+        policy = new ResilienceProperties.Policy();
+        policy.setMaxConcurrentCalls(2);
+        policy.setMaxQueueDepth(1);
+        policy.setMaxQueueWait(Duration.ofSeconds(5));
+        policy.setSlidingWindowSize(10);
+        policy.setMinimumNumberOfCalls(5);
+        ResilienceProperties properties = new ResilienceProperties();
+        properties.getClients().put("inventory-service", policy);
+        guards = new DownstreamGuards(properties, meterRegistry);
+        client = inventory.client(new DownstreamGuardsCapability(guards));
+    }
+
+    @AfterEach
+    void tearDown() {
+        inventory.close();
+    }
+
+    @Test
+    void bulkheadRejectsCallsBeyondConcurrencyAndQueue() throws Exception {
+        inventory.setLatencyMs(300);
+
+        int rejected = 0;
+        int succeeded = 0;
+        try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<AvailabilityResponse>> calls = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                calls.add(callers.submit(() -> client.checkAvailability(1L, 1)));
+            }
+            for (Future<AvailabilityResponse> call : calls) {
+                try {
+                    call.get();
+                    succeeded++;
+                } catch (ExecutionException e) {
+                    assertThat(e.getCause()).isInstanceOf(DownstreamUnavailableException.class);
+                    rejected++;
+                }
+            }
+        }
+
+        // 2 running + 1 queued get through, the rest fail without reaching inventory-service
+        assertThat(succeeded).isEqualTo(3);
+        assertThat(rejected).isEqualTo(7);
+        assertThat(inventory.requestCount("check-availability")).isEqualTo(3);
+        assertThat(meterRegistry.get("order.downstream.rejected").tag("reason", "bulkhead_full").counter().count())
+                .isEqualTo(7);
+        // Only attempted calls are timed
+        assertThat(meterRegistry.get(DownstreamGuards.CALL_TIMER).tag("client", "inventory-service")
+                .tag("method", "checkAvailability").tag("outcome", "success").timer().count()).isEqualTo(3);
+    }
+
+    @Test
+    void circuitOpensOnServerErrorsAndFailsFast() {
+        inventory.setFailing(true);
+        for (int i = 0; i < 5; i++) {
+            assertThatThrownBy(() -> client.checkAvailability(1L, 1)).isInstanceOf(FeignException.class);
+        }
+
+        assertThat(guards.circuitState("inventory-service")).isEqualTo(CircuitBreaker.State.OPEN);
+        inventory.setFailing(false);
+        assertThatThrownBy(() -> client.checkAvailability(1L, 1))
+                .isInstanceOf(DownstreamUnavailableException.class)
+                .extracting("retryAfter").isEqualTo(policy.getWaitDurationInOpenState());
+        assertThat(inventory.requestCount("check-availability")).isZero();
+    }
+
+    @Test
+    void methodTimeoutOverridesClientTimeout() {
+        policy.getMethodTimeouts().put("checkAvailability", Duration.ofMillis(100));
+        inventory.setLatencyMs(1_000);
+
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> client.checkAvailability(1L, 1)).isInstanceOf(DownstreamUnavailableException.class);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertThat(elapsedMs).isLessThan(800);
+    }
+
+    @Test
+    void readTimeoutIsAnsweredAsUnavailable() {
+        policy.setReadTimeout(Duration.ofMillis(100));
+        inventory.setLatencyMs(1_000);
+
+        assertThatThrownBy(() -> client.checkAvailability(1L, 1))
+                .isInstanceOf(DownstreamUnavailableException.class)
+                .hasMessageContaining("checkAvailability")
+                .hasCauseInstanceOf(SocketTimeoutException.class)
+                .satisfies(e -> {
+                    ResponseEntity<Map<String, String>> response = new GlobalExceptionHandler()
+                            .handleDownstreamUnavailableException((DownstreamUnavailableException) e);
+                    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+                    assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+                });
+        assertThat(meterRegistry.get(DownstreamGuards.CALL_TIMER).tag("method", "checkAvailability")
+                .tag("outcome", "error").timer().count()).isEqualTo(1);
+    }
+}
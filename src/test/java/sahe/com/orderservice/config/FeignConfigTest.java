@@ -0,0 +1,42 @@
+package sahe.com.orderservice.config;
+
+import feign.RequestInterceptor;
+import feign.RequestTemplate;
+import org.junit.jupiter.api.Test;
+import sahe.com.orderservice.security.AuthorizationContext;
+import sahe.com.orderservice.security.ServiceCredentials;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FeignConfigTest {
+
+    private final FeignConfig feignConfig = new FeignConfig();
+
+    @Test
+    void callerHeaderIsForwarded() {
+        RequestInterceptor interceptor = feignConfig.requestInterceptor(new ServiceCredentials("service-token"));
+        RequestTemplate template = new RequestTemplate();
+
+        AuthorizationContext.runAs("Bearer caller", () -> interceptor.apply(template));
+
+        assertThat(template.headers().get("Authorization")).containsExactly("Bearer caller");
+    }
+
+    @Test
+    void serviceTokenIsSentWhenThereIsNoCaller() {
+        RequestTemplate template = new RequestTemplate();
+
+        feignConfig.requestInterceptor(new ServiceCredentials("service-token")).apply(template);
+
+        assertThat(template.headers().get("Authorization")).containsExactly("Bearer service-token");
+    }
+
+    @Test
+    void noHeaderWithoutCallerOrServiceToken() {
+        RequestTemplate template = new RequestTemplate();
+
+        feignConfig.requestInterceptor(new ServiceCredentials("")).apply(template);
+
+        assertThat(template.headers()).doesNotContainKey("Authorization");
+    }
+}
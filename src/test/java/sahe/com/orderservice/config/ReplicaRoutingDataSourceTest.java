@@ -0,0 +1,159 @@
+package sahe.com.orderservice.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+import sahe.com.orderservice.service.ReadYourWritesGuard;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** Two in-memory H2 databases stand in for the primary and a replica; each knows its own name. */
+class ReplicaRoutingDataSourceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ReadYourWritesGuard guard = new ReadYourWritesGuard(true, Duration.ofSeconds(10));
+
+    private JdbcTemplate replicaJdbc;
+    private FailingDataSource replicaSwitch;
+    private ReplicaRoutingDataSource router;
+    private JdbcTemplate jdbc;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+
+    @BeforeEach
+    void setUp() {
+        DataSource primary = database("primary");
+        DataSource replica = database("replica");
+        replicaJdbc = new JdbcTemplate(replica);
+        replicaJdbc.execute("create table replication_lag (seconds double)");
+        replicaJdbc.update("insert into replication_lag values (0)");
+        replicaSwitch = new FailingDataSource(replica);
+
+        router = new ReplicaRoutingDataSource(primary,
+                List.of(new ReplicaRoutingDataSource.Replica("replica-1", replicaSwitch)), guard,
+                Duration.ofSeconds(5), "select seconds from replication_lag", Duration.ofSeconds(1), meterRegistry);
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primary);
+        dataSource.setReadOnlyDataSource(router);
+
+        jdbc = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void readOnlyTransactionsGoToTheReplica() {
+        assertThat(readOnlyRead()).isEqualTo("replica");
+        assertThat(readWriteRead()).isEqualTo("primary");
+        assertThat(meterRegistry.get(ReplicaRoutingDataSource.READS).tag("target", "replica-1").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void laggingReplicaIsSkippedUntilItCatchesUp() {
+        replicaJdbc.update("update replication_lag set seconds = 30");
+        router.checkReplicas();
+        assertThat(readOnlyRead()).isEqualTo("primary");
+        assertThat(meterRegistry.get(ReplicaRoutingDataSource.REPLICA_LAG).gauge().value()).isEqualTo(30);
+
+        replicaJdbc.update("update replication_lag set seconds = 1");
+        router.checkReplicas();
+        assertThat(readOnlyRead()).isEqualTo("replica");
+    }
+
+    @Test
+    void unreachableReplicaFallsBackToThePrimary() {
+        replicaSwitch.down = true;
+
+        assertThat(readOnlyRead()).isEqualTo("primary");
+        router.checkReplicas();
+        assertThat(meterRegistry.get(ReplicaRoutingDataSource.REPLICA_LAG).gauge().value()).isNaN();
+
+        replicaSwitch.down = false;
+        router.checkReplicas();
+        assertThat(readOnlyRead()).isEqualTo("replica");
+    }
+
+    @Test
+    void callerReadsTheirOwnWritesFromThePrimary() {
+        authenticate("client@smartcommerce.com");
+        guard.recordWrite();
+        assertThat(readOnlyRead()).isEqualTo("primary");
+
+        authenticate("other@smartcommerce.com");
+        assertThat(readOnlyRead()).isEqualTo("replica");
+        assertThat(ReadYourWritesGuard.onPrimary(this::readOnlyRead)).isEqualTo("primary");
+    }
+
+    private String readOnlyRead() {
+        return readOnly.execute(status -> whoami());
+    }
+
+    private String readWriteRead() {
+        return readWrite.execute(status -> whoami());
+    }
+
+    private String whoami() {
+        return jdbc.queryForObject("select name from whoami", String.class);
+    }
+
+    private static DataSource database(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("create table whoami (name varchar(20))");
+        jdbc.update("insert into whoami values (?)", name);
+        return dataSource;
+    }
+
+    private static void authenticate(String email) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                email, null, List.of(new SimpleGrantedAuthority("ROLE_CLIENT"))));
+    }
+
+    private static final class FailingDataSource extends AbstractDataSource {
+
+        private final DataSource target;
+        private volatile boolean down;
+
+        private FailingDataSource(DataSource target) {
+            this.target = target;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (down) {
+                throw new SQLException("Connection refused");
+            }
+            return target.getConnection();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return getConnection();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package sahe.com.orderservice.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SqlStatementCounterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SqlStatementCounter counter = new SqlStatementCounter(meterRegistry, 10);
+
+    @Test
+    void statementsAreRecordedPerRoutePattern() throws Exception {
+        handle("GET", "/orders/1", "/orders/{id}", 3);
+        handle("GET", "/orders/2", "/orders/{id}", 5);
+        handle("POST", "/orders", "/orders", 1);
+
+        DistributionSummary byId = meterRegistry.get("order.request.sql.statements")
+                .tags("method", "GET", "uri", "/orders/{id}").summary();
+        assertThat(byId.count()).isEqualTo(2);
+        assertThat(byId.totalAmount()).isEqualTo(8);
+        assertThat(byId.max()).isEqualTo(5);
+        assertThat(byId.getId().getBaseUnit()).isEqualTo("statements");
+        assertThat(meterRegistry.get("order.request.sql.statements").tags("method", "POST", "uri", "/orders")
+                .summary().totalAmount()).isEqualTo(1);
+    }
+
+    @Test
+    void unmatchedRequestsShareOneUriTag() throws Exception {
+        handle("GET", "/nope/1", null, 0);
+        handle("GET", "/nope/2", null, 0);
+
+        assertThat(meterRegistry.get("order.request.sql.statements").tags("method", "GET", "uri", "UNKNOWN")
+                .summary().count()).isEqualTo(2);
+        assertThat(meterRegistry.find("order.request.sql.statements").summaries()).hasSize(1);
+    }
+
+    @Test
+    void statementsOutsideARequestAreNotCounted() throws Exception {
+        assertThat(counter.inspect("select 1")).isEqualTo("select 1");
+
+        handle("GET", "/orders/1", "/orders/{id}", 2);
+        counter.inspect("select 1");
+
+        assertThat(meterRegistry.get("order.request.sql.statements").summary().totalAmount()).isEqualTo(2);
+    }
+
+    // The chain stands in for the dispatcher: it sets the matched pattern and runs the statements
+    private void handle(String method, String path, String pattern, int statements) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        FilterChain chain = (req, res) -> {
+            if (pattern != null) {
+                req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, pattern);
+            }
+            for (int i = 0; i < statements; i++) {
+                counter.inspect("select * from orders");
+            }
+        };
+        counter.doFilter(request, new MockHttpServletResponse(), chain);
+    }
+}
@@ -0,0 +1,92 @@
+package sahe.com.orderservice.controller;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import sahe.com.orderservice.model.Order;
+import sahe.com.orderservice.repository.OrderRepository;
+import sahe.com.orderservice.support.TestOrders;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.OutputStream;
+import java.util.function.LongConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static sahe.com.orderservice.support.OrderServiceBuilder.orderService;
+
+/**
+ * GET /orders as NDJSON over real rows: every order is written, and the persistence context
+ * never holds more than one chunk of orders and their items.
+ */
+@DataJpaTest
+class OrderStreamingTest {
+
+    private static final int ORDERS = 3_000;
+    private static final int LINES = 3;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void streamsEveryRowWithABoundedPersistenceContext() throws Exception {
+        for (long i = 1; i <= ORDERS; i++) {
+            entityManager.persist(TestOrders.order(i % 100, Order.OrderStatus.CONFIRMED, LINES));
+            if (i % 500 == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        OrderController controller = new OrderController(
+                orderService(orderRepository).entityManager(entityManager).build(),
+                null, JsonMapper.builder().build(), null);
+        Session session = entityManager.unwrap(Session.class);
+        long[] peakEntities = new long[1];
+        LineCountingOutputStream out = new LineCountingOutputStream(lines ->
+                peakEntities[0] = Math.max(peakEntities[0], session.getStatistics().getEntityCount()));
+
+        ResponseEntity<StreamingResponseBody> response = controller.streamAllOrders();
+        response.getBody().writeTo(out);
+
+        assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_NDJSON);
+        assertThat(out.lines).isEqualTo(ORDERS);
+        // At most one chunk of orders with their lines is managed at a time
+        assertThat(peakEntities[0]).isPositive()
+                .isLessThanOrEqualTo(OrderRepository.ITEM_FETCH_CHUNK * (1 + LINES));
+        assertThat(session.getStatistics().getEntityCount()).isZero();
+    }
+
+    private static final class LineCountingOutputStream extends OutputStream {
+
+        private final LongConsumer onLine;
+        private long lines;
+
+        private LineCountingOutputStream(LongConsumer onLine) {
+            this.onLine = onLine;
+        }
+
+        @Override
+        public void write(int b) {
+            if (b == '\n') {
+                onLine.accept(++lines);
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                write(b[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package sahe.com.orderservice.dto;
+
+import org.junit.jupiter.api.Test;
+import sahe.com.orderservice.model.Order;
+import sahe.com.orderservice.support.TestOrders;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OrderFieldsTest {
+
+    private final JsonMapper mapper = JsonMapper.builder().build();
+
+    @Test
+    void choosesTheNarrowestProjection() {
+        assertThat(OrderFields.of(null, null)).isSameAs(OrderFields.ALL);
+        assertThat(OrderFields.ALL.isAll()).isTrue();
+        assertThat(OrderFields.of("summary", null)).isSameAs(OrderFields.SUMMARY);
+        assertThat(OrderFields.SUMMARY.fitsSummary()).isTrue();
+
+        OrderFields dashboard = OrderFields.of(null, "id, status,totalAmount,status");
+        assertThat(dashboard.names()).containsExactly("id", "status", "totalAmount");
+        assertThat(dashboard.fitsSummary()).isTrue();
+        assertThat(dashboard.includesItems()).isFalse();
+
+        OrderFields shipping = OrderFields.of(null, "id,shippingCity");
+        assertThat(shipping.fitsSummary()).isFalse();
+        assertThat(shipping.includesItems()).isFalse();
+        assertThat(OrderFields.of(null, "id,items").includesItems()).isTrue();
+    }
+
+    @Test
+    void rejectsUnknownSelections() {
+        assertThatThrownBy(() -> OrderFields.of(null, "id,version"))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageStartingWith("Unknown order field: version");
+        assertThatThrownBy(() -> OrderFields.of("full", null))
+                .hasMessageStartingWith("Unknown view: full");
+        assertThatThrownBy(() -> OrderFields.of("summary", "id"))
+                .hasMessage("Use either view or fields, not both");
+    }
+
+    @Test
+    void writesOnlyTheSelectedProperties() {
+        OrderResponse order = new OrderResponse(1L, 7L, Order.OrderStatus.CONFIRMED, new BigDecimal("30.00"),
+                TestOrders.ADDRESS, TestOrders.CITY, TestOrders.COUNTRY, "CARD", null,
+                List.of(new OrderItemResponse()), LocalDateTime.of(2024, 6, 1, 10, 0), null, 3L);
+
+        assertThat(write(OrderFields.of(null, "totalAmount,id,notes")))
+                .isEqualTo("{\"totalAmount\":30.00,\"id\":1,\"notes\":null}");
+        assertThat(write(OrderFields.SUMMARY, order)).isEqualTo("{\"id\":1,\"userId\":7,\"status\":\"CONFIRMED\","
+                + "\"totalAmount\":30.00,\"createdAt\":\"2024-06-01T10:00:00\",\"updatedAt\":null}");
+    }
+
+    private String write(OrderFields fields) {
+        return write(fields, new OrderResponse(1L, 7L, Order.OrderStatus.CONFIRMED, new BigDecimal("30.00"),
+                null, null, null, null, null, List.of(), null, null, null));
+    }
+
+    private String write(OrderFields fields, OrderResponse order) {
+        StringWriter out = new StringWriter();
+        try (JsonGenerator generator = mapper.createGenerator(out)) {
+            fields.write(generator, order);
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,107 @@
+package sahe.com.orderservice.load;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import sahe.com.orderservice.dto.BulkStatusUpdateRequest;
+import sahe.com.orderservice.dto.BulkStatusUpdateResponse;
+import sahe.com.orderservice.model.Order;
+import sahe.com.orderservice.repository.OrderRepository;
+import sahe.com.orderservice.repository.UserOrderSummaryRepository;
+import sahe.com.orderservice.service.OrderReadCache;
+import sahe.com.orderservice.service.OrderService;
+import sahe.com.orderservice.service.UserOrderSummaryService;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static sahe.com.orderservice.support.OrderServiceBuilder.orderService;
+import static sahe.com.orderservice.support.TestOrders.order;
+
+/**
+ * Ships 20k CONFIRMED orders in one bulk status change on H2, after a smaller warm-up run.
+ * Run with {@code ./mvnw -Pload test}; the throughput is printed, not asserted.
+ */
+@Tag("load")
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BulkStatusUpdateLoadTest {
+
+    private static final int ORDERS = 20_000;
+    private static final int WARMUP_ORDERS = 2_000;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private UserOrderSummaryRepository summaryRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void tearDown() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                entityManager.createQuery("delete from Order").executeUpdate());
+    }
+
+    @Test
+    void bulkShipThroughput() {
+        UserOrderSummaryService summaryService = new UserOrderSummaryService(summaryRepository, orderRepository,
+                JsonMapper.builder().build(), transactionManager);
+        OrderService orderService = orderService(orderRepository)
+                .userOrderSummaryService(summaryService)
+                .orderReadCache(new OrderReadCache(JsonMapper.builder().build(), new SimpleMeterRegistry(), 1_000,
+                        Duration.ofMinutes(1)))
+                .transactionManager(transactionManager)
+                .entityManager(entityManager)
+                .build();
+
+        orderService.bulkUpdateStatus(shipRequest(insertConfirmed(WARMUP_ORDERS)));
+        List<Long> ids = insertConfirmed(ORDERS);
+
+        long start = System.nanoTime();
+        BulkStatusUpdateResponse response = orderService.bulkUpdateStatus(shipRequest(ids));
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        assertThat(response.updated()).hasSize(ORDERS);
+        System.out.printf("%n%d orders shipped in %.0f ms: %.0f orders/s%n", ORDERS, seconds * 1000, ORDERS / seconds);
+    }
+
+    private List<Long> insertConfirmed(int count) {
+        return new TransactionTemplate(transactionManager).execute(tx -> {
+            List<Long> ids = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                Order order = order((long) i % 100, Order.OrderStatus.CONFIRMED);
+                entityManager.persist(order);
+                ids.add(order.getId());
+                if (ids.size() % 1_000 == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            }
+            return ids;
+        });
+    }
+
+    private BulkStatusUpdateRequest shipRequest(List<Long> ids) {
+        BulkStatusUpdateRequest request = new BulkStatusUpdateRequest();
+        request.setIds(ids);
+        request.setStatus(Order.OrderStatus.SHIPPED);
+        return request;
+    }
+}
@@ -0,0 +1,164 @@
+package sahe.com.orderservice.load;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import sahe.com.orderservice.OrderServiceApplication;
+import sahe.com.orderservice.support.StubInventoryServer;
+import sahe.com.orderservice.support.StubProductServer;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Starts order-service once with platform threads and once with virtual threads, both against
+ * in-process product and inventory stubs, and fires 1k concurrent POST /orders at each.
+ * Run with {@code ./mvnw -Pload test}; results are printed, not asserted.
+ */
+@Tag("load")
+class CreateOrderLoadTest {
+
+    private static final String SECRET = "SmartCommerceSecretKeyForJWTTokenGenerationAndValidation2024SecureKey";
+    private static final int CONCURRENT_CREATES = 1_000;
+    private static final int WARMUP_CREATES = 200;
+    private static final long DOWNSTREAM_LATENCY_MS = 20;
+
+    private static StubProductServer products;
+    private static StubInventoryServer inventory;
+    private static String token;
+
+    @BeforeAll
+    static void startStubs() throws Exception {
+        products = new StubProductServer();
+        products.setLatencyMs(DOWNSTREAM_LATENCY_MS);
+        inventory = new StubInventoryServer(10_000_000);
+        inventory.setLatencyMs(DOWNSTREAM_LATENCY_MS);
+        token = Jwts.builder()
+                .subject("load@smartcommerce.com")
+                .claim("role", "CLIENT")
+                .expiration(new Date(System.currentTimeMillis() + Duration.ofHours(1).toMillis()))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+    }
+
+    @AfterAll
+    static void stopStubs() {
+        products.close();
+        inventory.close();
+    }
+
+    @Test
+    void platformVersusVirtualThreads() throws Exception {
+        Result platform = run(false);
+        Result virtual = run(true);
+
+        System.out.printf("%n%d concurrent creates, %d ms per downstream call%n", CONCURRENT_CREATES, DOWNSTREAM_LATENCY_MS);
+        System.out.printf("%-10s %12s %10s %10s%n", "threads", "orders/s", "p50 ms", "p99 ms");
+        for (Result result : List.of(platform, virtual)) {
+            System.out.printf("%-10s %12.1f %10d %10d%n", result.mode(), result.throughput(), result.p50Ms(), result.p99Ms());
+        }
+
+        assertThat(platform.failures()).isZero();
+        assertThat(virtual.failures()).isZero();
+    }
+
+    private Result run(boolean virtualThreads) throws Exception {
+        String mode = virtualThreads ? "virtual" : "platform";
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(OrderServiceApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "spring.datasource.url=jdbc:h2:mem:load-" + mode + ";DB_CLOSE_DELAY=-1",
+                        "spring.datasource.driver-class-name=org.h2.Driver",
+                        "spring.datasource.username=sa",
+                        "spring.datasource.password=",
+                        "spring.datasource.hikari.maximum-pool-size=50",
+                        "spring.jpa.show-sql=false",
+                        "spring.sql.init.mode=never",
+                        "eureka.client.enabled=false",
+                        "spring.cloud.discovery.client.simple.instances.product-service[0].uri=" + products.baseUrl(),
+                        "spring.cloud.discovery.client.simple.instances.inventory-service[0].uri=" + inventory.baseUrl(),
+                        // Measure the thread model, not the bulkheads
+                        "resilience.clients.product-service.max-concurrent-calls=10000",
+                        "resilience.clients.inventory-service.max-concurrent-calls=10000",
+                        "logging.level.root=WARN")
+                .run();
+             HttpClient http = HttpClient.newBuilder()
+                     .version(HttpClient.Version.HTTP_1_1)
+                     .executor(Executors.newVirtualThreadPerTaskExecutor())
+                     .build()) {
+            String port = context.getEnvironment().getProperty("local.server.port");
+            URI uri = URI.create("http://localhost:" + port + "/orders");
+
+            fire(http, uri, WARMUP_CREATES);
+            long start = System.nanoTime();
+            long[] latencies = fire(http, uri, CONCURRENT_CREATES);
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            long failures = Arrays.stream(latencies).filter(latency -> latency < 0).count();
+            long[] sorted = Arrays.stream(latencies).filter(latency -> latency >= 0).sorted().toArray();
+            return new Result(mode, CONCURRENT_CREATES / seconds, percentile(sorted, 0.50), percentile(sorted, 0.99), failures);
+        }
+    }
+
+    // Latency in ms of each request, or -1 for a request that did not return 201
+    private long[] fire(HttpClient http, URI uri, int requests) throws Exception {
+        List<Future<Long>> calls = new ArrayList<>(requests);
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < requests; i++) {
+                HttpRequest request = HttpRequest.newBuilder(uri)
+                        .header("Authorization", "Bearer " + token)
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(orderJson(i)))
+                        .build();
+                calls.add(clients.submit(() -> {
+                    long start = System.nanoTime();
+                    HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                    return response.statusCode() == 201 ? (System.nanoTime() - start) / 1_000_000 : -1L;
+                }));
+            }
+            long[] latencies = new long[requests];
+            for (int i = 0; i < requests; i++) {
+                latencies[i] = calls.get(i).get();
+            }
+            return latencies;
+        }
+    }
+
+    private String orderJson(int i) {
+        return """
+                {"userId": %d, "shippingAddress": "Av. Siempre Viva 742", "shippingCity": "Lima",
+                 "shippingCountry": "Peru", "paymentMethod": "CARD",
+                 "items": [{"productId": %d, "quantity": 1}, {"productId": %d, "quantity": 2},
+                           {"productId": %d, "quantity": 1}]}
+                """.formatted(i % 100 + 1, i % 50 + 1, i % 50 + 51, i % 50 + 101);
+    }
+
+    private long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return -1;
+        }
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(percentile * sorted.length) - 1)];
+    }
+
+    private record Result(String mode, double throughput, long p50Ms, long p99Ms, long failures) {
+    }
+}
@@ -0,0 +1,159 @@
+package sahe.com.orderservice.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Property checks: for generated prices, quantities and carts (fixed seed, so failures
+ * reproduce) the cents fast path gives exactly what the BigDecimal implementation gave, same
+ * value and same scale, including around the long overflow boundary.
+ */
+class MoneyTest {
+
+    private static final int CASES = 20_000;
+
+    private final SplittableRandom random = new SplittableRandom(20_240_613);
+
+    @Test
+    void subtotalEqualsTheBigDecimalProduct() {
+        for (int i = 0; i < CASES; i++) {
+            BigDecimal price = price();
+            int quantity = quantity();
+            OrderItem item = item(price, quantity);
+
+            item.calculateSubtotal();
+
+            assertThat(item.getSubtotal()).as("%s x %d", price, quantity)
+                    .isEqualTo(price.multiply(BigDecimal.valueOf(quantity)));
+        }
+    }
+
+    @Test
+    void totalEqualsTheBigDecimalSum() {
+        for (int i = 0; i < CASES / 10; i++) {
+            Order order = new Order();
+            int lines = random.nextInt(0, 300);
+            for (int line = 0; line < lines; line++) {
+                OrderItem item = item(price(), quantity());
+                item.calculateSubtotal();
+                order.addItem(item);
+            }
+
+            order.calculateTotal();
+
+            assertThat(order.getTotalAmount()).isEqualTo(legacyTotal(order));
+        }
+    }
+
+    @Test
+    void recalculationFollowsEveryWriteOfTheFields() {
+        for (int i = 0; i < CASES / 10; i++) {
+            OrderItem item = item(price(), quantity());
+            Order order = new Order();
+            order.addItem(item);
+            item.calculateSubtotal();
+            order.calculateTotal();
+
+            // Prices, quantities and subtotals written directly (setters, Hibernate) are seen
+            switch (random.nextInt(3)) {
+                case 0 -> item.setUnitPrice(price());
+                case 1 -> item.setQuantity(quantity());
+                default -> item.setSubtotal(price());
+            }
+            if (random.nextBoolean()) {
+                item.calculateSubtotal();
+            }
+            order.calculateTotal();
+
+            assertThat(order.getTotalAmount()).isEqualTo(legacyTotal(order));
+        }
+    }
+
+    @Test
+    void unchangedLinesAndTotalsKeepTheirInstances() {
+        OrderItem item = item(new BigDecimal("19.99"), 3);
+        Order order = new Order();
+        order.addItem(item);
+        item.calculateSubtotal();
+        order.calculateTotal();
+        BigDecimal subtotal = item.getSubtotal();
+        BigDecimal total = order.getTotalAmount();
+
+        item.calculateSubtotal();
+        order.calculateTotal();
+
+        assertThat(item.getSubtotal()).isSameAs(subtotal).isEqualTo("59.97");
+        assertThat(order.getTotalAmount()).isSameAs(total);
+    }
+
+    @Test
+    void overflowFallsBackToBigDecimal() {
+        long largest = Long.MAX_VALUE / 7;
+        assertThat(Money.multiply(largest, 7)).isEqualTo(largest * 7);
+        assertThat(Money.multiply(largest + 1, 7)).isEqualTo(Money.NOT_EXACT);
+        assertThat(Money.multiply(-largest - 1, 7)).isEqualTo(Money.NOT_EXACT);
+        assertThat(Money.add(Long.MAX_VALUE - 1, 1)).isEqualTo(Long.MAX_VALUE);
+        assertThat(Money.add(Long.MAX_VALUE, 1)).isEqualTo(Money.NOT_EXACT);
+        assertThat(Money.add(Long.MIN_VALUE + 1, -2)).isEqualTo(Money.NOT_EXACT);
+
+        // The largest price with exact cents, times a quantity that overflows a long
+        BigDecimal price = Money.ofCents(999_999_999_999_999_999L);
+        OrderItem item = item(price, 10);
+        item.calculateSubtotal();
+        assertThat(item.getSubtotal()).isEqualTo(price.multiply(BigDecimal.TEN));
+    }
+
+    @Test
+    void missingValuesFailAsBefore() {
+        OrderItem item = item(null, 1);
+        assertThatThrownBy(item::calculateSubtotal).isInstanceOf(NullPointerException.class);
+
+        Order order = new Order();
+        order.addItem(new OrderItem());
+        assertThatThrownBy(order::calculateTotal).isInstanceOf(NullPointerException.class);
+    }
+
+    // Mostly cents, as prices and columns are; other scales and huge values take the fallback
+    private BigDecimal price() {
+        int scale = random.nextInt(10) < 7 ? 2 : random.nextInt(0, 5);
+        long unscaled = switch (random.nextInt(5)) {
+            case 0 -> random.nextLong(-100, 100);
+            case 1 -> random.nextLong(0, 100_000_000);
+            case 2 -> random.nextLong(-999_999_999_999_999_999L, 1_000_000_000_000_000_000L);
+            case 3 -> random.nextLong();
+            default -> random.nextBoolean() ? Long.MAX_VALUE - random.nextLong(1_000) : Long.MIN_VALUE + random.nextLong(1_000);
+        };
+        BigDecimal price = new BigDecimal(BigInteger.valueOf(unscaled), scale);
+        // Beyond long range now and then
+        return random.nextInt(50) == 0 ? price.multiply(BigDecimal.TEN.pow(5)) : price;
+    }
+
+    private int quantity() {
+        return switch (random.nextInt(4)) {
+            case 0 -> random.nextInt(0, 10);
+            case 1 -> random.nextInt(1, 10_000);
+            case 2 -> random.nextInt();
+            default -> random.nextBoolean() ? Integer.MAX_VALUE : Integer.MIN_VALUE;
+        };
+    }
+
+    private static OrderItem item(BigDecimal price, int quantity) {
+        OrderItem item = new OrderItem();
+        item.setUnitPrice(price);
+        item.setQuantity(quantity);
+        return item;
+    }
+
+    // The implementation before the cents fast path
+    private static BigDecimal legacyTotal(Order order) {
+        return order.getItems().stream()
+                .map(OrderItem::getSubtotal)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+}
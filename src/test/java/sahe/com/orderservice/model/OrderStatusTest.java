@@ -0,0 +1,51 @@
+package sahe.com.orderservice.model;
+
+import org.junit.jupiter.api.Test;
+import sahe.com.orderservice.exception.InvalidStatusTransitionException;
+
+import java.util.EnumSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static sahe.com.orderservice.model.Order.OrderStatus.*;
+
+class OrderStatusTest {
+
+    @Test
+    void matrixFollowsTheLifecycle() {
+        assertThat(allowedFrom(PENDING)).containsExactly(CONFIRMED, CANCELLED);
+        assertThat(allowedFrom(CONFIRMED)).containsExactly(SHIPPED, CANCELLED);
+        assertThat(allowedFrom(SHIPPED)).containsExactly(DELIVERED);
+        assertThat(allowedFrom(DELIVERED)).isEmpty();
+        assertThat(allowedFrom(CANCELLED)).isEmpty();
+        assertThat(DELIVERED.isFinal()).isTrue();
+        assertThat(SHIPPED.isFinal()).isFalse();
+    }
+
+    @Test
+    void sourcesAreTheInverseOfTheMatrix() {
+        assertThat(CANCELLED.sources()).containsExactly(PENDING, CONFIRMED);
+        assertThat(DELIVERED.sources()).containsExactly(SHIPPED);
+        assertThat(PENDING.sources()).isEmpty();
+    }
+
+    @Test
+    void rejectionsAreSharedAndStackless() {
+        InvalidStatusTransitionException rejection = InvalidStatusTransitionException.of(SHIPPED, CANCELLED);
+
+        assertThat(InvalidStatusTransitionException.of(SHIPPED, CANCELLED)).isSameAs(rejection);
+        assertThat(rejection.getStackTrace()).isEmpty();
+        assertThat(rejection).hasMessage("Invalid state transition from SHIPPED to CANCELLED");
+        assertThat(InvalidStatusTransitionException.of(CANCELLED, PENDING))
+                .hasMessage("The status of a cancelled order cannot be changed.");
+    }
+
+    private EnumSet<Order.OrderStatus> allowedFrom(Order.OrderStatus from) {
+        EnumSet<Order.OrderStatus> allowed = EnumSet.noneOf(Order.OrderStatus.class);
+        for (Order.OrderStatus to : Order.OrderStatus.values()) {
+            if (from.canTransitionTo(to)) {
+                allowed.add(to);
+            }
+        }
+        return allowed;
+    }
+}
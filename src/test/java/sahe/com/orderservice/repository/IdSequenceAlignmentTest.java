@@ -0,0 +1,107 @@
+package sahe.com.orderservice.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import sahe.com.orderservice.model.Order;
+import sahe.com.orderservice.model.OrderItem;
+import sahe.com.orderservice.model.OutboxEvent;
+import sahe.com.orderservice.support.TestOrders;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A database created by ddl-auto=update holds rows with identity ids when it is baselined at
+ * V1. After V2 and V3 the first pooled blocks Hibernate takes must start above those ids.
+ * H2 (PostgreSQL mode) gets a setval alias so V3 runs unchanged.
+ */
+@DataJpaTest(properties = {"spring.flyway.enabled=false", "spring.jpa.hibernate.ddl-auto=none"})
+class IdSequenceAlignmentTest {
+
+    private static final String URL = "jdbc:h2:mem:sequence-alignment;MODE=PostgreSQL;DB_CLOSE_DELAY=-1";
+    private static final int ORDERS = 120;
+    private static final int ITEMS = 300;
+    private static final int EVENTS = 7;
+
+    // Kept open while the test runs: H2 2.4 ties an IN (...) check constraint to the session
+    // that created it
+    private static SingleConnectionDataSource migrations;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @DynamicPropertySource
+    static void baselinedDatabase(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> URL);
+    }
+
+    @BeforeAll
+    static void seedAndMigrate() throws SQLException {
+        migrations = new SingleConnectionDataSource(URL, "sa", "", true);
+        try (Statement statement = migrations.getConnection().createStatement()) {
+            // PostgreSQL's setval(sequence, value, false): the next nextval returns value
+            statement.execute("create alias setval as $$ long setval(java.sql.Connection connection, String sequence, "
+                    + "long value, boolean isCalled) throws java.sql.SQLException { "
+                    + "try (java.sql.Statement s = connection.createStatement()) { "
+                    + "s.execute(\"alter sequence \" + sequence + \" restart with \" + (isCalled ? value + 1 : value)); } "
+                    + "return value; } $$");
+            migrate("1");
+            statement.execute("insert into orders (id, user_id, status, total_amount, shipping_address, shipping_city, "
+                    + "shipping_country, created_at) select x, 7, 'CONFIRMED', 10.00, 'Address', 'Lima', 'Peru', "
+                    + "timestamp '2026-01-01 00:00:00' from system_range(1, " + ORDERS + ")");
+            statement.execute("insert into order_items (id, order_id, product_id, product_name, quantity, unit_price, "
+                    + "subtotal) select x, mod(x, " + ORDERS + ") + 1, 1, 'Product', 1, 10.00, 10.00 "
+                    + "from system_range(1, " + ITEMS + ")");
+            migrate("1.1");
+            statement.execute("insert into outbox_events (id, type, aggregate_id, status, attempts, next_attempt_at, "
+                    + "created_at) select x, 'STOCK_RESERVE', x, 'DONE', 1, timestamp '2026-01-01 00:00:00', "
+                    + "timestamp '2026-01-01 00:00:00' from system_range(1, " + EVENTS + ")");
+            migrate("3");
+        }
+    }
+
+    @AfterAll
+    static void close() {
+        migrations.destroy();
+    }
+
+    @Test
+    void newIdsStartAboveTheBaselinedRows() {
+        Order order = TestOrders.order(7L, Order.OrderStatus.PENDING, 60);
+        orderRepository.saveAndFlush(order);
+        OutboxEvent event = new OutboxEvent();
+        event.setType(OutboxEvent.Type.STOCK_RESERVE);
+        event.setAggregateId(order.getId());
+        event.setNextAttemptAt(LocalDateTime.now());
+        event.setCreatedAt(LocalDateTime.now());
+        outboxEventRepository.saveAndFlush(event);
+
+        assertThat(order.getId()).isGreaterThan(ORDERS);
+        // 60 lines: the first block and the next one
+        assertThat(order.getItems()).extracting(OrderItem::getId).allMatch(id -> id > ITEMS).doesNotHaveDuplicates();
+        assertThat(event.getId()).isGreaterThan(EVENTS);
+        assertThat(orderRepository.count()).isEqualTo(ORDERS + 1);
+    }
+
+    private static void migrate(String target) {
+        Flyway.configure()
+                .dataSource(migrations)
+                .locations("classpath:db/migration/common", "classpath:db/migration/postgresql")
+                .target(target)
+                .load()
+                .migrate();
+    }
+}
@@ -0,0 +1,111 @@
+package sahe.com.orderservice.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Applies the common migrations to H2 (PostgreSQL mode), seeds it and checks with EXPLAIN that
+ * the repository filters are served by the V4 indexes. H2 has no partial indexes, so the
+ * PostgreSQL-only V5 is only checked for the definitions it must keep.
+ */
+class OrderIndexUsageTest {
+
+    private static final int ORDERS = 20_000;
+
+    private static SingleConnectionDataSource dataSource;
+    private static Connection connection;
+
+    // One session for the migrations and the queries: H2 2.4 ties an IN (...) check constraint
+    // to the session that created it
+    @BeforeAll
+    static void migrateAndSeed() throws SQLException {
+        dataSource = new SingleConnectionDataSource("jdbc:h2:mem:index-usage;MODE=PostgreSQL", "sa", "", true);
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration/common")
+                .load()
+                .migrate();
+
+        connection = dataSource.getConnection();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("insert into orders (id, user_id, status, total_amount, shipping_address, shipping_city, "
+                    + "shipping_country, created_at, version) "
+                    + "select x, mod(x, 1000), cast(case mod(x, 5) when 0 then 'PENDING' when 1 then 'CONFIRMED' "
+                    + "when 2 then 'SHIPPED' when 3 then 'DELIVERED' else 'CANCELLED' end as varchar(20)), 10.00, "
+                    + "'Av. Siempre Viva 742', 'Lima', 'Peru', dateadd('MINUTE', x, timestamp '2026-01-01 00:00:00'), 0 "
+                    + "from system_range(1, " + ORDERS + ")");
+            statement.execute("insert into order_items (id, order_id, product_id, product_name, quantity, unit_price, subtotal) "
+                    + "select id, id, mod(id, 500), 'Product', 1, 10.00, 10.00 from orders");
+            statement.execute("analyze");
+        }
+    }
+
+    @AfterAll
+    static void close() {
+        dataSource.destroy();
+    }
+
+    @Test
+    void userPageUsesUserIndex() throws SQLException {
+        assertThat(plan("select id from orders where user_id = 7 "
+                + "and (created_at, id) < (timestamp '2026-06-01 00:00:00', 999999) "
+                + "order by created_at desc, id desc limit 50"))
+                .contains("IDX_ORDERS_USER_CREATED");
+    }
+
+    @Test
+    void userAndStatusUsesCompositeIndex() throws SQLException {
+        assertThat(plan("select id from orders where user_id = 7 and status = 'PENDING'"))
+                .contains("IDX_ORDERS_USER_STATUS");
+    }
+
+    @Test
+    void statusPageUsesStatusIndex() throws SQLException {
+        assertThat(plan("select id from orders where status = 'SHIPPED' "
+                + "and (created_at, id) < (timestamp '2026-06-01 00:00:00', 999999) "
+                + "order by created_at desc, id desc limit 50"))
+                .contains("IDX_ORDERS_STATUS_CREATED");
+    }
+
+    @Test
+    void itemLookupsUseTheirIndexes() throws SQLException {
+        assertThat(plan("select id from order_items where product_id = 42")).contains("IDX_ORDER_ITEMS_PRODUCT");
+        // H2 indexes foreign keys on its own and may pick that index; PostgreSQL does not, hence V4's
+        assertThat(plan("select id from order_items where order_id in (1, 2, 3)"))
+                .containsPattern("PUBLIC\\.(IDX_ORDER_ITEMS_ORDER|CONSTRAINT_INDEX_\\w+): ORDER_ID IN");
+    }
+
+    @Test
+    void partialIndexesCoverTheOpenOrders() throws IOException {
+        String v5;
+        try (InputStream in = getClass().getResourceAsStream("/db/migration/postgresql/V5__partial_indexes.sql")) {
+            v5 = new String(in.readAllBytes(), StandardCharsets.UTF_8).replaceAll("\\s+", " ");
+        }
+
+        assertThat(v5).contains("create index idx_orders_open_status_created on orders (status, created_at desc, id desc) "
+                + "where status in ('PENDING', 'CONFIRMED', 'SHIPPED');");
+        assertThat(v5).contains("create index idx_outbox_events_due on outbox_events (next_attempt_at, id) "
+                + "where status = 'PENDING';");
+    }
+
+    private String plan(String sql) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("explain " + sql)) {
+            resultSet.next();
+            return resultSet.getString(1).toUpperCase();
+        }
+    }
+}
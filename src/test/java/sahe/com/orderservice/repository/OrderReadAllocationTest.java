@@ -0,0 +1,95 @@
+package sahe.com.orderservice.repository;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import sahe.com.orderservice.dto.OrderResponse;
+import sahe.com.orderservice.model.Order;
+import sahe.com.orderservice.service.OrderService;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static sahe.com.orderservice.support.OrderServiceBuilder.orderService;
+import static sahe.com.orderservice.support.TestOrders.item;
+import static sahe.com.orderservice.support.TestOrders.order;
+
+/**
+ * Allocation per request of GET /orders/user/{userId}: the projection path against the
+ * previous entity path (load managed orders and items, then copy them into DTOs).
+ */
+@DataJpaTest
+class OrderReadAllocationTest {
+
+    private static final long USER_ID = 7L;
+    private static final int ORDERS = 100;
+    private static final int WARMUP = 200;
+    private static final int ITERATIONS = 500;
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private OrderService orderService;
+
+    @BeforeEach
+    void setUp() {
+        orderService = orderService(orderRepository)
+                .orderItemRepository(orderItemRepository)
+                .entityManager(entityManager)
+                .build();
+        for (int i = 0; i < ORDERS; i++) {
+            entityManager.persist(order(USER_ID, Order.OrderStatus.CONFIRMED, item(1L, 2), item(2L, 2), item(3L, 2)));
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void projectionAllocatesLessThanEntityHydration() {
+        Supplier<List<OrderResponse>> entities = () -> orderRepository.withItems(orderRepository.findByUserId(USER_ID))
+                .stream()
+                .map(OrderResponse::new)
+                .toList();
+        Supplier<List<OrderResponse>> projection = () -> orderService.getOrdersByUserId(USER_ID);
+
+        assertThat(projection.get()).usingRecursiveComparison().ignoringCollectionOrder().isEqualTo(entities.get());
+        entityManager.clear();
+
+        long entityBytes = bytesPerRequest(entities);
+        long projectionBytes = bytesPerRequest(projection);
+        System.out.printf("GET /orders/user/{userId}, %d orders x 3 items: entities %,d B/op, projection %,d B/op%n",
+                ORDERS, entityBytes, projectionBytes);
+
+        assertThat(projectionBytes).isLessThan(entityBytes);
+    }
+
+    private long bytesPerRequest(Supplier<List<OrderResponse>> request) {
+        for (int i = 0; i < WARMUP; i++) {
+            run(request);
+        }
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < ITERATIONS; i++) {
+            run(request);
+        }
+        return (threads.getCurrentThreadAllocatedBytes() - before) / ITERATIONS;
+    }
+
+    private void run(Supplier<List<OrderResponse>> request) {
+        assertThat(request.get()).hasSize(ORDERS);
+        // every request starts with an empty persistence context, as it would in production
+        entityManager.clear();
+    }
+}
@@ -0,0 +1,89 @@
+package sahe.com.orderservice.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import sahe.com.orderservice.dto.OrderCursor;
+import sahe.com.orderservice.dto.OrderResponse;
+import sahe.com.orderservice.model.Order;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static sahe.com.orderservice.support.TestOrders.order;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class OrderRepositoryFetchTest {
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @ParameterizedTest
+    @ValueSource(ints = {5, 50, 200})
+    void listMappingRunsTwoStatementsWhateverTheSize(int orders) {
+        Statistics statistics = seed(orders);
+
+        List<OrderResponse> responses = orderRepository.withItems(orderRepository.findByStatus(Order.OrderStatus.CONFIRMED))
+                .stream()
+                .map(OrderResponse::new)
+                .toList();
+
+        assertThat(responses).hasSize(orders).allMatch(response -> response.getItems().size() == 3);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {5, 50, 200})
+    void pageProjectionRunsTwoStatementsWhateverTheSize(int orders) {
+        Statistics statistics = seed(orders);
+        OrderCursor first = OrderCursor.FIRST;
+
+        List<OrderResponse> responses = orderItemRepository.attachItems(
+                orderRepository.findPage(first.createdAt(), first.id(), PageRequest.ofSize(orders)));
+
+        assertThat(responses).hasSize(orders).allMatch(response -> response.getItems().size() == 3);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {5, 50, 200})
+    void summaryProjectionRunsOneStatementWithoutItems(int orders) {
+        Statistics statistics = seed(orders);
+
+        List<OrderResponse> summaries = orderRepository.findSummariesByStatus(Order.OrderStatus.CONFIRMED);
+
+        assertThat(summaries).hasSize(orders).allSatisfy(summary -> {
+            assertThat(summary.getTotalAmount()).isEqualByComparingTo("30.00");
+            assertThat(summary.getShippingAddress()).isNull();
+            assertThat(summary.getItems()).isNull();
+        });
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    private Statistics seed(int orders) {
+        for (long i = 1; i <= orders; i++) {
+            entityManager.persist(order(i, Order.OrderStatus.CONFIRMED, 3));
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+}
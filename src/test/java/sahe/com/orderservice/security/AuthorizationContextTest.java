@@ -0,0 +1,49 @@
+package sahe.com.orderservice.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuthorizationContextTest {
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void taskSeesHeaderCapturedAtSubmissionAfterRequestIsGone() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer abc");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        AtomicReference<String> seen = new AtomicReference<>();
+        Runnable task = AuthorizationContext.capture(() -> seen.set(AuthorizationContext.currentHeader()));
+
+        // The request finishes (and its object is recycled) before the task runs
+        RequestContextHolder.resetRequestAttributes();
+        request.removeHeader("Authorization");
+        Thread worker = Thread.ofVirtual().start(task);
+        worker.join();
+
+        assertThat(seen.get()).isEqualTo("Bearer abc");
+    }
+
+    @Test
+    void workerThreadIsCleanAfterTheTask() throws Exception {
+        AtomicReference<String> after = new AtomicReference<>("unset");
+        Thread worker = Thread.ofPlatform().start(() -> {
+            AuthorizationContext.capture(() -> { }).run();
+            after.set(AuthorizationContext.currentHeader());
+        });
+        worker.join();
+
+        assertThat(after.get()).isNull();
+    }
+}
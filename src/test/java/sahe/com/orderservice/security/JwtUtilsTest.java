@@ -0,0 +1,66 @@
+package sahe.com.orderservice.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtUtilsTest {
+
+    private static final String SECRET = "SmartCommerceSecretKeyForJWTTokenGenerationAndValidation2024SecureKey";
+
+    private final SecretKey key = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+    private final JwtUtils jwtUtils = new JwtUtils(SECRET, 100, Duration.ofMinutes(5));
+
+    @Test
+    void repeatedTokenIsServedFromCache() {
+        String token = token(Duration.ofHours(1));
+
+        JwtClaims first = jwtUtils.parseToken(token);
+        JwtClaims second = jwtUtils.parseToken(token);
+
+        assertThat(first.email()).isEqualTo("client@smartcommerce.com");
+        assertThat(first.role()).isEqualTo("CLIENT");
+        assertThat(first.authorities()).extracting("authority").containsExactly("ROLE_CLIENT");
+        assertThat(second).isSameAs(first);
+    }
+
+    @Test
+    void cachedTokenIsEvictedAtExpiry() throws InterruptedException {
+        String token = token(Duration.ofSeconds(1));
+        assertThat(jwtUtils.parseToken(token)).isNotNull();
+
+        Thread.sleep(2_000);
+
+        assertThat(jwtUtils.parseToken(token)).isNull();
+    }
+
+    @Test
+    void rejectsTokensSignedWithAnotherKey() {
+        SecretKey otherKey = Keys.hmacShaKeyFor(
+                "AnotherSecretKeyThatIsLongEnoughForHmacSha256Signatures2024".getBytes(StandardCharsets.UTF_8));
+        String token = Jwts.builder()
+                .subject("client@smartcommerce.com")
+                .claim("role", "ADMIN")
+                .signWith(otherKey)
+                .compact();
+
+        assertThat(jwtUtils.parseToken(token)).isNull();
+        assertThat(jwtUtils.parseToken("not-a-jwt")).isNull();
+    }
+
+    private String token(Duration validity) {
+        return Jwts.builder()
+                .subject("client@smartcommerce.com")
+                .claim("role", "CLIENT")
+                .expiration(new Date(System.currentTimeMillis() + validity.toMillis()))
+                .signWith(key)
+                .compact();
+    }
+}
@@ -0,0 +1,161 @@
+package sahe.com.orderservice.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import sahe.com.orderservice.dto.OrderRequest;
+import sahe.com.orderservice.dto.OrderResponse;
+import sahe.com.orderservice.exception.IdempotencyKeyException;
+import sahe.com.orderservice.model.Order;
+import sahe.com.orderservice.repository.IdempotencyKeyRepository;
+import sahe.com.orderservice.support.TestOrders;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Claims are committed in their own transactions, so the test must not run inside one
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class IdempotencyServiceTest {
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final AtomicInteger executions = new AtomicInteger();
+    private IdempotencyService service;
+
+    @BeforeEach
+    void setUp() {
+        service = newInstance();
+    }
+
+    @AfterEach
+    void tearDown() {
+        idempotencyKeyRepository.deleteAll();
+    }
+
+    @Test
+    void concurrentDuplicatesWaitForTheOriginal() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Supplier<OrderResponse> slowCreate = () -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return create();
+        };
+
+        List<Future<OrderResponse>> responses = new ArrayList<>();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 20; i++) {
+                responses.add(clients.submit(() -> service.execute("key-1", request(2), slowCreate)));
+            }
+            Thread.sleep(200);
+            release.countDown();
+            for (Future<OrderResponse> response : responses) {
+                assertThat(response.get().getId()).isEqualTo(1L);
+            }
+        }
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    void completedKeyIsReplayedWithoutRunningAgain() {
+        OrderResponse first = service.execute("key-2", request(2), this::create);
+        OrderResponse retry = service.execute("key-2", request(2), this::create);
+        // A fresh instance (restart, or another node) answers from the table
+        OrderResponse elsewhere = newInstance().execute("key-2", request(2), this::create);
+
+        assertThat(executions).hasValue(1);
+        assertThat(retry).isSameAs(first);
+        assertThat(elsewhere).usingRecursiveComparison().isEqualTo(first);
+    }
+
+    @Test
+    void keyReusedWithAnotherBodyIsRejected() {
+        service.execute("key-3", request(2), this::create);
+
+        assertThatThrownBy(() -> service.execute("key-3", request(5), this::create))
+                .isInstanceOf(IdempotencyKeyException.class)
+                .extracting("status").isEqualTo(HttpStatus.UNPROCESSABLE_CONTENT);
+    }
+
+    @Test
+    void keyClaimedOnAnotherInstanceIsAConflict() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try (ExecutorService node = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<OrderResponse> original = node.submit(() -> service.execute("key-4", request(2), () -> {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return create();
+            }));
+            started.await();
+
+            assertThatThrownBy(() -> newInstance().execute("key-4", request(2), this::create))
+                    .isInstanceOf(IdempotencyKeyException.class)
+                    .extracting("status").isEqualTo(HttpStatus.CONFLICT);
+
+            release.countDown();
+            assertThat(original.get().getId()).isEqualTo(1L);
+        }
+    }
+
+    @Test
+    void failedRequestReleasesItsKey() {
+        assertThatThrownBy(() -> service.execute("key-5", request(2), () -> {
+            throw new RuntimeException("Insufficient stock of product: Keyboard");
+        })).hasMessage("Insufficient stock of product: Keyboard");
+
+        OrderResponse retry = service.execute("key-5", request(2), this::create);
+
+        assertThat(retry.getId()).isEqualTo(1L);
+        assertThat(idempotencyKeyRepository.findById("key-5")).get()
+                .extracting("orderId").isEqualTo(1L);
+    }
+
+    private IdempotencyService newInstance() {
+        return new IdempotencyService(idempotencyKeyRepository, new TransactionTemplate(transactionManager),
+                JsonMapper.builder().build(), 100, Duration.ofMinutes(10), Duration.ofSeconds(5), Duration.ofMinutes(5));
+    }
+
+    private OrderResponse create() {
+        executions.incrementAndGet();
+        OrderResponse response = new OrderResponse();
+        response.setId(1L);
+        response.setUserId(7L);
+        response.setStatus(Order.OrderStatus.CONFIRMED);
+        response.setItems(List.of());
+        return response;
+    }
+
+    private OrderRequest request(int quantity) {
+        return TestOrders.request(1L, quantity);
+    }
+}
@@ -0,0 +1,128 @@
+package sahe.com.orderservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import sahe.com.orderservice.dto.ProductSales;
+import sahe.com.orderservice.dto.SalesBucket;
+import sahe.com.orderservice.dto.SalesByCountry;
+import sahe.com.orderservice.dto.SalesByStatus;
+import sahe.com.orderservice.model.Order;
+import sahe.com.orderservice.repository.OrderItemRepository;
+import sahe.com.orderservice.repository.OrderRepository;
+import sahe.com.orderservice.support.TestOrders;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static sahe.com.orderservice.support.TestOrders.item;
+
+@DataJpaTest
+class OrderAnalyticsServiceTest {
+
+    private static final LocalDate FROM = LocalDate.of(2025, 1, 1);
+    private static final LocalDate TO = LocalDate.of(2025, 12, 31);
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private OrderAnalyticsService analyticsService;
+
+    @BeforeEach
+    void setUp() {
+        analyticsService = new OrderAnalyticsService(orderRepository, orderItemRepository, transactionManager,
+                new SimpleMeterRegistry(), 100, Duration.ofMinutes(1));
+        order(LocalDate.of(2025, 1, 10), "Peru", Order.OrderStatus.DELIVERED, 1L, 2);
+        order(LocalDate.of(2025, 1, 10), "Chile", Order.OrderStatus.CONFIRMED, 2L, 1);
+        order(LocalDate.of(2025, 3, 5), "Peru", Order.OrderStatus.SHIPPED, 1L, 3);
+        order(LocalDate.of(2025, 3, 6), "Peru", Order.OrderStatus.CANCELLED, 2L, 10);
+        // Outside the range
+        order(LocalDate.of(2024, 12, 31), "Peru", Order.OrderStatus.DELIVERED, 2L, 5);
+    }
+
+    @Test
+    void aggregatesRevenueInTheDatabase() {
+        assertThat(analyticsService.getSales(FROM, TO, OrderAnalyticsService.Granularity.DAY, null))
+                .extracting(SalesBucket::period, SalesBucket::orders, bucket -> bucket.revenue().intValue())
+                .containsExactly(
+                        tuple(LocalDate.of(2025, 1, 10), 2L, 30),
+                        tuple(LocalDate.of(2025, 3, 5), 1L, 30));
+        assertThat(analyticsService.getSales(FROM, TO, OrderAnalyticsService.Granularity.MONTH, null))
+                .extracting(SalesBucket::period)
+                .containsExactly(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 3, 1));
+        assertThat(analyticsService.getSalesByCountry(FROM, TO, null))
+                .extracting(SalesByCountry::country, SalesByCountry::orders)
+                .containsExactly(tuple("Peru", 2L), tuple("Chile", 1L));
+        // The status breakdown keeps cancelled orders unless asked otherwise
+        assertThat(analyticsService.getSalesByStatus(FROM, TO, null))
+                .extracting(SalesByStatus::status)
+                .containsExactlyInAnyOrder(Order.OrderStatus.CONFIRMED, Order.OrderStatus.SHIPPED,
+                        Order.OrderStatus.DELIVERED, Order.OrderStatus.CANCELLED);
+        assertThat(analyticsService.getSalesByCountry(FROM, TO, Set.of(Order.OrderStatus.CANCELLED)))
+                .extracting(SalesByCountry::country, country -> country.revenue().intValue())
+                .containsExactly(tuple("Peru", 100));
+    }
+
+    @Test
+    void ranksProductsByUnitsSold() {
+        assertThat(analyticsService.getTopProducts(FROM, TO, 1, null))
+                .extracting(ProductSales::productId, ProductSales::quantity)
+                .containsExactly(tuple(1L, 5L));
+
+        List<ProductSales> streamed = new ArrayList<>();
+        analyticsService.streamProducts(FROM, TO, null, streamed::add);
+        assertThat(streamed).extracting(ProductSales::productId).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void servesRepeatedQueriesFromTheCache() {
+        List<SalesByCountry> first = analyticsService.getSalesByCountry(FROM, TO, null);
+        order(LocalDate.of(2025, 6, 1), "Chile", Order.OrderStatus.CONFIRMED, 1L, 1);
+
+        assertThat(analyticsService.getSalesByCountry(FROM, TO, null)).isSameAs(first);
+
+        analyticsService.invalidateAll();
+        assertThat(analyticsService.getSalesByCountry(FROM, TO, null))
+                .extracting(SalesByCountry::country, SalesByCountry::orders)
+                .containsExactly(tuple("Peru", 2L), tuple("Chile", 2L));
+    }
+
+    @Test
+    void rejectsInvalidRanges() {
+        assertThatThrownBy(() -> analyticsService.getSalesByCountry(TO, FROM, null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> analyticsService.getSalesByCountry(FROM.minusYears(10), TO, null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private void order(LocalDate createdOn, String country, Order.OrderStatus status, Long productId, int quantity) {
+        Order order = TestOrders.order(7L, status, item(productId, quantity));
+        order.setShippingCountry(country);
+        entityManager.persist(order);
+        entityManager.flush();
+        // created_at is set on insert; move it to the day under test
+        entityManager.createQuery("update Order o set o.createdAt = :createdAt where o.id = :id")
+                .setParameter("createdAt", createdOn.atTime(12, 0))
+                .setParameter("id", order.getId())
+                .executeUpdate();
+    }
+}
@@ -0,0 +1,134 @@
+package sahe.com.orderservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import sahe.com.orderservice.dto.BulkStatusUpdateRequest;
+import sahe.com.orderservice.dto.BulkStatusUpdateResponse;
+import sahe.com.orderservice.model.Order;
+import sahe.com.orderservice.repository.OrderRepository;
+import sahe.com.orderservice.repository.UserOrderSummaryRepository;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static sahe.com.orderservice.support.OrderServiceBuilder.orderService;
+import static sahe.com.orderservice.support.TestOrders.order;
+
+// Each chunk commits its own transaction, so the test must not run inside one
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderBulkStatusUpdateTest {
+
+    // Two full chunks of UPDATEs and a partial one
+    private static final int ORDERS = 2_500;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private UserOrderSummaryRepository summaryRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+    private OrderService orderService;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        UserOrderSummaryService summaryService = new UserOrderSummaryService(summaryRepository, orderRepository,
+                JsonMapper.builder().build(), transactionManager);
+        orderService = orderService(orderRepository)
+                .userOrderSummaryService(summaryService)
+                .orderReadCache(new OrderReadCache(JsonMapper.builder().build(), new SimpleMeterRegistry(), 1_000,
+                        Duration.ofMinutes(1)))
+                .transactionManager(transactionManager)
+                .entityManager(entityManager)
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        transactionTemplate.executeWithoutResult(status ->
+                entityManager.createQuery("delete from Order").executeUpdate());
+    }
+
+    @Test
+    void reportsOutcomePerId() {
+        List<Long> confirmed = insert(3, Order.OrderStatus.CONFIRMED);
+        List<Long> delivered = insert(2, Order.OrderStatus.DELIVERED);
+        List<Long> ids = new ArrayList<>(confirmed);
+        ids.addAll(delivered);
+        ids.add(confirmed.get(0));
+        ids.add(-1L);
+
+        BulkStatusUpdateResponse response = orderService.bulkUpdateStatus(request(ids, Order.OrderStatus.SHIPPED));
+
+        assertThat(response.updated()).containsExactlyElementsOf(confirmed);
+        assertThat(response.notFound()).containsExactly(-1L);
+        assertThat(response.rejected()).containsOnlyKeys(Order.OrderStatus.DELIVERED);
+        assertThat(response.rejected().get(Order.OrderStatus.DELIVERED)).containsExactlyElementsOf(delivered);
+        Order shipped = orderRepository.findById(confirmed.get(0)).orElseThrow();
+        assertThat(shipped.getStatus()).isEqualTo(Order.OrderStatus.SHIPPED);
+        assertThat(shipped.getVersion()).isEqualTo(1);
+    }
+
+    @Test
+    void bulkCancellationIsRefused() {
+        assertThatThrownBy(() -> orderService.bulkUpdateStatus(request(List.of(1L), Order.OrderStatus.CANCELLED)))
+                .hasMessageContaining("PATCH /orders/{id}/cancel");
+    }
+
+    @Test
+    void shipsOrdersAcrossSeveralChunks() {
+        List<Long> ids = insert(ORDERS, Order.OrderStatus.CONFIRMED);
+
+        BulkStatusUpdateResponse response = orderService.bulkUpdateStatus(request(ids, Order.OrderStatus.SHIPPED));
+
+        assertThat(response.updated()).containsExactlyElementsOf(ids);
+        assertThat(response.notFound()).isEmpty();
+        assertThat(response.rejected()).isEmpty();
+        assertThat(orderRepository.countByStatus(Order.OrderStatus.SHIPPED)).isEqualTo(ORDERS);
+        assertThat(orderRepository.findById(ids.get(ids.size() - 1)).orElseThrow().getVersion()).isEqualTo(1);
+    }
+
+    private List<Long> insert(int count, Order.OrderStatus status) {
+        return transactionTemplate.execute(tx -> {
+            List<Long> ids = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                Order order = order((long) i % 100, status);
+                entityManager.persist(order);
+                ids.add(order.getId());
+                if (ids.size() % 1_000 == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            }
+            return ids;
+        });
+    }
+
+    private BulkStatusUpdateRequest request(List<Long> ids, Order.OrderStatus status) {
+        BulkStatusUpdateRequest request = new BulkStatusUpdateRequest();
+        request.setIds(ids);
+        request.setStatus(status);
+        return request;
+    }
+}
@@ -0,0 +1,89 @@
+package sahe.com.orderservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import sahe.com.orderservice.exception.DownstreamUnavailableException;
+import sahe.com.orderservice.exception.StockReservationException;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// The meter names and tags are a contract with the dashboards: these tests pin them
+class OrderMetricsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private OrderMetrics orderMetrics;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        orderMetrics = new OrderMetrics(meterRegistry);
+    }
+
+    @Test
+    void stagesAreTimedByOutcome() {
+        assertThat(orderMetrics.stage("validate", () -> "ok")).isEqualTo("ok");
+        orderMetrics.stage("validate", () -> "ok");
+        assertThatThrownBy(() -> orderMetrics.stage("persist", () -> {
+            throw new IllegalStateException("boom");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(meterRegistry.get("order.create.stage").tags("stage", "validate", "outcome", "success")
+                .timer().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("order.create.stage").tags("stage", "persist", "outcome", "failure")
+                .timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("order.create.failed").tags("stage", "persist", "reason", "error")
+                .counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void failuresAreCountedByReason() {
+        fail("validate", new IllegalArgumentException("Quantity must be positive"));
+        fail("reserve", new StockReservationException("Insufficient stock", List.of()));
+        fail("reserve", new DownstreamUnavailableException("inventory-service", "circuit breaker is open",
+                Duration.ofSeconds(1)));
+        fail("reserve", new StockReservationException("Partially reserved", List.of(),
+                new DownstreamUnavailableException("inventory-service", "no response", Duration.ofSeconds(1))));
+
+        assertThat(meterRegistry.get("order.create.failed").tags("stage", "validate", "reason", "invalid")
+                .counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("order.create.failed").tags("stage", "reserve", "reason", "out_of_stock")
+                .counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("order.create.failed")
+                .tags("stage", "reserve", "reason", "downstream_unavailable").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void activeCreatesAreGaugedWhileRunning() {
+        double[] during = new double[1];
+
+        orderMetrics.trackCreate(() -> during[0] = meterRegistry.get("order.create.active").gauge().value());
+
+        assertThat(during[0]).isEqualTo(1);
+        assertThat(meterRegistry.get("order.create.active").gauge().value()).isZero();
+    }
+
+    @Test
+    void createdAndCancelledOrdersAreCountedByTag() {
+        orderMetrics.created(false);
+        orderMetrics.created(true);
+        orderMetrics.created(true);
+        orderMetrics.cancelled("requested");
+        orderMetrics.cancelled("confirm");
+
+        assertThat(meterRegistry.get("order.created").tag("mode", "sync").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("order.created").tag("mode", "async").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("order.cancelled").tag("reason", "requested").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("order.cancelled").tag("reason", "confirm").counter().count()).isEqualTo(1);
+    }
+
+    private void fail(String stage, RuntimeException e) {
+        assertThatThrownBy(() -> orderMetrics.stage(stage, () -> {
+            throw e;
+        })).isSameAs(e);
+    }
+}
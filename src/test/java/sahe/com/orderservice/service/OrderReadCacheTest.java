@@ -0,0 +1,161 @@
+package sahe.com.orderservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import sahe.com.orderservice.dto.OrderResponse;
+import sahe.com.orderservice.dto.OrderStatusUpdateRequest;
+import sahe.com.orderservice.model.Order;
+import sahe.com.orderservice.repository.OrderItemRepository;
+import sahe.com.orderservice.repository.OrderRepository;
+import sahe.com.orderservice.repository.UserOrderSummaryRepository;
+import sahe.com.orderservice.support.TestOrders;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static sahe.com.orderservice.support.OrderServiceBuilder.orderService;
+
+// Status changes commit their own transactions, so the test must not run inside one
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderReadCacheTest {
+
+    private static final int READERS = 8;
+
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private UserOrderSummaryRepository summaryRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private OrderReadCache orderReadCache;
+    private OrderService orderService;
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        orderReadCache = new OrderReadCache(jsonMapper, new SimpleMeterRegistry(), 1_000, Duration.ofMinutes(1));
+        UserOrderSummaryService summaryService = new UserOrderSummaryService(summaryRepository, orderRepository,
+                jsonMapper, transactionManager);
+        orderService = orderService(orderRepository)
+                .orderItemRepository(orderItemRepository)
+                .userOrderSummaryService(summaryService)
+                .orderReadCache(orderReadCache)
+                .transactionManager(transactionManager)
+                .orderMetrics(new OrderMetrics(new SimpleMeterRegistry()))
+                .entityManager(entityManager)
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        orderRepository.deleteAll();
+    }
+
+    @Test
+    void pollsAreServedFromMemoryUntilTheOrderChanges() {
+        Long id = orderRepository.save(order()).getId();
+
+        OrderReadCache.CachedOrder first = read(id);
+        OrderReadCache.CachedOrder second = read(id);
+
+        assertThat(second).isSameAs(first);
+        assertThat(loads).hasValue(1);
+        assertThat(status(first)).isEqualTo(Order.OrderStatus.PENDING);
+
+        orderService.updateOrderStatus(id, status(Order.OrderStatus.CONFIRMED));
+        OrderReadCache.CachedOrder changed = read(id);
+
+        assertThat(loads).hasValue(2);
+        assertThat(status(changed)).isEqualTo(Order.OrderStatus.CONFIRMED);
+        assertThat(changed.etag()).isNotEqualTo(first.etag());
+    }
+
+    @Test
+    void neverServesAStatusOlderThanTheLastCommittedTransition() throws Exception {
+        Long id = orderRepository.save(order()).getId();
+        List<Order.OrderStatus> lifecycle = List.of(
+                Order.OrderStatus.CONFIRMED, Order.OrderStatus.SHIPPED, Order.OrderStatus.DELIVERED);
+
+        AtomicBoolean done = new AtomicBoolean();
+        List<Future<Integer>> readers = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(READERS)) {
+            for (int reader = 0; reader < READERS; reader++) {
+                // Each poller only ever sees the status move forward
+                readers.add(executor.submit(() -> {
+                    int polls = 0;
+                    Order.OrderStatus last = Order.OrderStatus.PENDING;
+                    while (!done.get()) {
+                        Order.OrderStatus seen = status(read(id));
+                        assertThat(seen.ordinal()).isGreaterThanOrEqualTo(last.ordinal());
+                        last = seen;
+                        polls++;
+                    }
+                    return polls;
+                }));
+            }
+            for (Order.OrderStatus next : lifecycle) {
+                for (int poll = 0; poll < 200; poll++) {
+                    read(id);
+                }
+                orderService.updateOrderStatus(id, status(next));
+                // A read that starts after the change committed sees it
+                assertThat(status(read(id))).isEqualTo(next);
+            }
+            done.set(true);
+        }
+        for (Future<Integer> reader : readers) {
+            assertThat(reader.get()).isPositive();
+        }
+        // Polls between transitions were answered from the cache
+        assertThat(loads.get()).isLessThan(100);
+    }
+
+    private OrderReadCache.CachedOrder read(Long id) {
+        return orderReadCache.get(id, () -> {
+            loads.incrementAndGet();
+            return orderService.getOrderById(id);
+        });
+    }
+
+    private Order.OrderStatus status(OrderReadCache.CachedOrder cached) {
+        return jsonMapper.readValue(cached.body(), OrderResponse.class).getStatus();
+    }
+
+    private OrderStatusUpdateRequest status(Order.OrderStatus status) {
+        OrderStatusUpdateRequest request = new OrderStatusUpdateRequest();
+        request.setStatus(status);
+        return request;
+    }
+
+    private Order order() {
+        return TestOrders.order(7L, Order.OrderStatus.PENDING, 1);
+    }
+}
@@ -0,0 +1,181 @@
+package sahe.com.orderservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import sahe.com.orderservice.client.BatchStockItem;
+import sahe.com.orderservice.client.ProductResponse;
+import sahe.com.orderservice.client.StockReservationResult;
+import sahe.com.orderservice.dto.OrderRequest;
+import sahe.com.orderservice.dto.OrderResponse;
+import sahe.com.orderservice.exception.StockReservationException;
+import sahe.com.orderservice.model.Order;
+import sahe.com.orderservice.repository.OrderRepository;
+import sahe.com.orderservice.support.TestOrders;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static sahe.com.orderservice.support.OrderServiceBuilder.orderService;
+
+@ExtendWith(MockitoExtension.class)
+class OrderServiceCreateOrderTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private OrderValidator orderValidator;
+
+    @Mock
+    private StockReservationService stockReservationService;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private UserOrderSummaryService userOrderSummaryService;
+
+    @Mock
+    private OrderReadCache orderReadCache;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private OrderService orderService;
+    private Order storedOrder;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        orderService = orderService(orderRepository)
+                .orderValidator(orderValidator)
+                .stockReservationService(stockReservationService)
+                .outboxService(outboxService)
+                .userOrderSummaryService(userOrderSummaryService)
+                .orderReadCache(orderReadCache)
+                .transactionManager(transactionManager)
+                .orderMetrics(new OrderMetrics(meterRegistry))
+                .build();
+        when(orderValidator.validate(any())).thenReturn(Map.of(1L, product()));
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> {
+            storedOrder = invocation.getArgument(0);
+            storedOrder.setId(10L);
+            return storedOrder;
+        });
+        lenient().when(orderRepository.findById(10L)).thenAnswer(invocation -> Optional.of(storedOrder));
+    }
+
+    @Test
+    void remoteStagesRunOutsideTransactions() {
+        when(orderRepository.compareAndSetStatus(eq(10L), eq(Order.OrderStatus.PENDING),
+                eq(Order.OrderStatus.CONFIRMED), any())).thenReturn(1);
+
+        OrderResponse response = orderService.createOrder(request());
+
+        assertThat(response.getStatus()).isEqualTo(Order.OrderStatus.CONFIRMED);
+        assertThat(response.getTotalAmount()).isEqualByComparingTo("20.00");
+
+        InOrder inOrder = inOrder(orderValidator, transactionManager, stockReservationService);
+        inOrder.verify(orderValidator).validate(any());
+        inOrder.verify(transactionManager).getTransaction(any());
+        inOrder.verify(transactionManager).commit(any());
+        inOrder.verify(stockReservationService).reserve(eq(10L), anyList());
+        inOrder.verify(transactionManager).getTransaction(any());
+        inOrder.verify(transactionManager).commit(any());
+        assertThat(meterRegistry.get("order.create.stage").timers()).hasSize(4);
+        assertThat(meterRegistry.get("order.created").tag("mode", "sync").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("order.create.active").gauge().value()).isZero();
+    }
+
+    @Test
+    void failedReservationCancelsTheOrder() {
+        when(stockReservationService.reserve(eq(10L), anyList()))
+                .thenThrow(new StockReservationException("Failed to reduce stock for product 1: Insufficient stock", List.of()));
+
+        assertThatThrownBy(() -> orderService.createOrder(request()))
+                .isInstanceOf(StockReservationException.class);
+
+        assertThat(storedOrder.getStatus()).isEqualTo(Order.OrderStatus.CANCELLED);
+        verify(transactionManager, times(2)).commit(any());
+        assertThat(meterRegistry.get("order.create.stage").tag("stage", "compensate").timer().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("order.create.stage").tag("stage", "reserve")
+                .tag("outcome", "failure").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("order.create.failed").tag("stage", "reserve")
+                .tag("reason", "out_of_stock").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("order.cancelled").tag("reason", "stock_reservation").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void acceptedLinesAreReleasedWhenAnotherIsRejected() {
+        List<StockReservationResult> results = List.of(
+                new StockReservationResult(1L, 2, true, 8, null),
+                new StockReservationResult(2L, 1, false, null, "Insufficient stock"));
+        when(stockReservationService.reserve(eq(10L), anyList()))
+                .thenThrow(new StockReservationException("Failed to reduce stock for product 2: Insufficient stock", results));
+
+        assertThatThrownBy(() -> orderService.createOrder(request()))
+                .isInstanceOf(StockReservationException.class);
+
+        assertThat(storedOrder.getStatus()).isEqualTo(Order.OrderStatus.CANCELLED);
+        verify(outboxService).enqueueStockReleases(10L, List.of(new BatchStockItem(1L, 2)));
+    }
+
+    @Test
+    void reservedStockIsReleasedWhenTheConfirmationFails() {
+        when(stockReservationService.reserve(eq(10L), anyList()))
+                .thenReturn(List.of(new StockReservationResult(1L, 2, true, 8, null)));
+        when(orderRepository.compareAndSetStatus(eq(10L), eq(Order.OrderStatus.PENDING),
+                eq(Order.OrderStatus.CONFIRMED), any())).thenThrow(new QueryTimeoutException("confirm timed out"));
+
+        assertThatThrownBy(() -> orderService.createOrder(request()))
+                .isInstanceOf(QueryTimeoutException.class);
+
+        assertThat(storedOrder.getStatus()).isEqualTo(Order.OrderStatus.CANCELLED);
+        verify(outboxService).enqueueStockReleases(10L, List.of(new BatchStockItem(1L, 2)));
+        assertThat(meterRegistry.get("order.cancelled").tag("reason", "confirm").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void asyncModeQueuesTheReservationWithTheOrder() {
+        ReflectionTestUtils.setField(orderService, "asyncStockReservation", true);
+
+        OrderResponse response = orderService.createOrder(request());
+
+        assertThat(response.getStatus()).isEqualTo(Order.OrderStatus.PENDING);
+        verify(outboxService).enqueueStockReserve(10L);
+        verify(transactionManager, times(1)).commit(any());
+        verifyNoInteractions(stockReservationService);
+    }
+
+    private OrderRequest request() {
+        return TestOrders.request(1L, 2);
+    }
+
+    private ProductResponse product() {
+        ProductResponse product = new ProductResponse();
+        product.setId(1L);
+        product.setName("Keyboard");
+        product.setPrice(new BigDecimal("10.00"));
+        product.setActive(true);
+        return product;
+    }
+}
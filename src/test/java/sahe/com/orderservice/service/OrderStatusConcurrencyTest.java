@@ -0,0 +1,197 @@
+package sahe.com.orderservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import sahe.com.orderservice.dto.OrderResponse;
+import sahe.com.orderservice.dto.OrderStatusUpdateRequest;
+import sahe.com.orderservice.exception.InvalidStatusTransitionException;
+import sahe.com.orderservice.model.Order;
+import sahe.com.orderservice.model.OutboxEvent;
+import sahe.com.orderservice.repository.OrderItemRepository;
+import sahe.com.orderservice.repository.OrderRepository;
+import sahe.com.orderservice.repository.OutboxEventRepository;
+import sahe.com.orderservice.repository.UserOrderSummaryRepository;
+import sahe.com.orderservice.support.TestOrders;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static sahe.com.orderservice.support.OrderServiceBuilder.orderService;
+
+// Status changes commit their own transactions, so the test must not run inside one
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderStatusConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final int ROUNDS = 20;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private UserOrderSummaryRepository summaryRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private UserOrderSummaryService summaryService;
+    private OrderService orderService;
+
+    @BeforeEach
+    void setUp() {
+        OutboxService outboxService = new OutboxService(outboxEventRepository, JsonMapper.builder().build());
+        summaryService = new UserOrderSummaryService(summaryRepository, orderRepository,
+                JsonMapper.builder().build(), transactionManager);
+        orderService = orderService(orderRepository)
+                .orderItemRepository(orderItemRepository)
+                .outboxService(outboxService)
+                .userOrderSummaryService(summaryService)
+                .orderReadCache(new OrderReadCache(JsonMapper.builder().build(), new SimpleMeterRegistry(), 1_000,
+                        Duration.ofMinutes(1)))
+                .transactionManager(transactionManager)
+                .orderMetrics(new OrderMetrics(new SimpleMeterRegistry()))
+                .entityManager(entityManager)
+                .build();
+        // Enough attempts that every caller gets a definite answer even under heavy contention
+        ReflectionTestUtils.setField(orderService, "statusUpdateMaxAttempts", 50);
+    }
+
+    @AfterEach
+    void tearDown() {
+        outboxEventRepository.deleteAll();
+        summaryRepository.deleteAll();
+        orderRepository.deleteAll();
+    }
+
+    @Test
+    void concurrentShipAndCancelHaveExactlyOneWinner() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            Order order = create(Order.OrderStatus.CONFIRMED);
+            summaryService.getSummary(7L);
+            long initialVersion = order.getVersion();
+
+            List<OrderResponse> winners = race(THREADS, thread -> thread % 2 == 0
+                    ? orderService.cancelOrder(order.getId())
+                    : orderService.updateOrderStatus(order.getId(), status(Order.OrderStatus.SHIPPED)));
+
+            Order stored = orderRepository.findById(order.getId()).orElseThrow();
+            assertThat(winners).hasSize(1);
+            assertThat(winners.get(0).getStatus()).isEqualTo(stored.getStatus());
+            assertThat(stored.getVersion()).isEqualTo(initialVersion + 1);
+            // Stock goes back once, and only if the cancellation won
+            long releases = outboxEventRepository.findAll().stream()
+                    .filter(event -> event.getAggregateId().equals(order.getId()))
+                    .filter(event -> event.getType() == OutboxEvent.Type.STOCK_RELEASE)
+                    .count();
+            assertThat(releases).isEqualTo(stored.getStatus() == Order.OrderStatus.CANCELLED ? 2 : 0);
+        }
+        // The summary saw every winning transition exactly once
+        assertThat(summaryService.getSummary(7L).counts()).containsEntry(Order.OrderStatus.CONFIRMED, 0L)
+                .containsEntry(Order.OrderStatus.SHIPPED, orderRepository.countByStatus(Order.OrderStatus.SHIPPED))
+                .containsEntry(Order.OrderStatus.CANCELLED, orderRepository.countByStatus(Order.OrderStatus.CANCELLED));
+    }
+
+    @Test
+    void lifecycleAppliedByCompetingWritersKeepsEveryStep() throws Exception {
+        Order order = create(Order.OrderStatus.PENDING);
+        List<Order.OrderStatus> lifecycle = List.of(
+                Order.OrderStatus.CONFIRMED, Order.OrderStatus.SHIPPED, Order.OrderStatus.DELIVERED);
+
+        // Every thread tries every step; each step must be applied exactly once and in order
+        Queue<Order.OrderStatus> applied = new ConcurrentLinkedQueue<>();
+        race(THREADS, thread -> {
+            for (Order.OrderStatus next : lifecycle) {
+                try {
+                    applied.add(orderService.updateOrderStatus(order.getId(), status(next)).getStatus());
+                } catch (InvalidStatusTransitionException rejected) {
+                    // Another writer applied this step first
+                }
+            }
+            return null;
+        });
+
+        Order stored = orderRepository.findById(order.getId()).orElseThrow();
+        assertThat(stored.getStatus()).isEqualTo(Order.OrderStatus.DELIVERED);
+        assertThat(applied).containsExactlyInAnyOrderElementsOf(lifecycle);
+        assertThat(stored.getVersion()).isEqualTo(lifecycle.size());
+    }
+
+    // Starts the callers together and returns the responses of the ones that succeeded
+    private List<OrderResponse> race(int threads, Caller caller) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<OrderResponse>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            for (int thread = 0; thread < threads; thread++) {
+                int id = thread;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return caller.call(id);
+                }));
+            }
+            start.countDown();
+        }
+        List<OrderResponse> succeeded = new ArrayList<>();
+        for (Future<OrderResponse> future : futures) {
+            try {
+                OrderResponse response = future.get();
+                if (response != null) {
+                    succeeded.add(response);
+                }
+            } catch (ExecutionException e) {
+                // Rejected because the status had already moved on, never because retries ran out
+                assertThat(e.getCause()).isInstanceOf(InvalidStatusTransitionException.class);
+            }
+        }
+        return succeeded;
+    }
+
+    private OrderStatusUpdateRequest status(Order.OrderStatus status) {
+        OrderStatusUpdateRequest request = new OrderStatusUpdateRequest();
+        request.setStatus(status);
+        return request;
+    }
+
+    // Saves the order and records it in the summary in one transaction, as createOrder does
+    private Order create(Order.OrderStatus status) {
+        return new TransactionTemplate(transactionManager).execute(tx -> {
+            Order order = orderRepository.save(TestOrders.order(7L, status, 2));
+            summaryService.recordCreated(order);
+            return order;
+        });
+    }
+
+    @FunctionalInterface
+    private interface Caller {
+        OrderResponse call(int thread);
+    }
+}
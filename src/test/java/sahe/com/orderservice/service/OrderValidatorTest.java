@@ -0,0 +1,147 @@
+package sahe.com.orderservice.service;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import sahe.com.orderservice.client.AvailabilityResponse;
+import sahe.com.orderservice.client.InventoryClient;
+import sahe.com.orderservice.client.ProductClient;
+import sahe.com.orderservice.client.ProductResponse;
+import sahe.com.orderservice.dto.OrderItemRequest;
+import sahe.com.orderservice.dto.OrderRequest;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class OrderValidatorTest {
+
+    private SimpleAsyncTaskExecutor executor;
+    private ProductClient productClient;
+    private InventoryClient inventoryClient;
+    private OrderValidator validator;
+
+    @BeforeEach
+    void setUp() {
+        // Virtual threads, as remoteCallExecutor in production; the catalog loads on them too
+        executor = new SimpleAsyncTaskExecutor("test-remote-call-");
+        executor.setVirtualThreads(true);
+        productClient = mock(ProductClient.class);
+        inventoryClient = mock(InventoryClient.class);
+        ProductCatalog productCatalog = new ProductCatalog(productClient, executor, new SimpleMeterRegistry(),
+                100, Duration.ofMinutes(5), Duration.ofMinutes(1), Ticker.systemTicker());
+        validator = new OrderValidator(productCatalog, inventoryClient, executor);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.close();
+    }
+
+    @Test
+    void allLookupsAreInFlightAtOnce() {
+        // 30 lines over 10 distinct products: one product and one availability call each.
+        // Every call waits until all 20 have started, which only happens if none waits for another
+        CountDownLatch allStarted = new CountDownLatch(20);
+        when(productClient.getProductById(anyLong())).thenAnswer(invocation -> {
+            awaitAll(allStarted);
+            return product(invocation.getArgument(0), true);
+        });
+        when(inventoryClient.checkAvailability(anyLong(), anyInt())).thenAnswer(invocation -> {
+            awaitAll(allStarted);
+            return availability(true);
+        });
+
+        Map<Long, ProductResponse> products = validator.validate(request(30, 10));
+
+        assertThat(products).hasSize(10);
+        verify(productClient, times(10)).getProductById(anyLong());
+        verify(inventoryClient, times(10)).checkAvailability(anyLong(), anyInt());
+    }
+
+    @Test
+    void firstFailureCancelsOutstandingCalls() {
+        when(productClient.getProductById(anyLong())).thenAnswer(invocation -> {
+            Long id = invocation.getArgument(0);
+            if (id == 1L) {
+                return product(id, false);
+            }
+            Thread.sleep(10_000);
+            return product(id, true);
+        });
+        when(inventoryClient.checkAvailability(anyLong(), anyInt())).thenAnswer(invocation -> {
+            Thread.sleep(10_000);
+            return availability(true);
+        });
+
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> validator.validate(request(5, 5)))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessage("Product Product 1 is not active");
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertThat(elapsedMs).isLessThan(2_000);
+    }
+
+    @Test
+    void combinesQuantitiesOfRepeatedProducts() {
+        when(productClient.getProductById(anyLong())).thenAnswer(invocation ->
+                product(invocation.getArgument(0), true));
+        when(inventoryClient.checkAvailability(anyLong(), anyInt())).thenReturn(availability(true));
+
+        validator.validate(request(4, 1));
+
+        verify(productClient, times(1)).getProductById(1L);
+        verify(inventoryClient, times(1)).checkAvailability(1L, 8);
+    }
+
+    private static void awaitAll(CountDownLatch allStarted) throws InterruptedException {
+        allStarted.countDown();
+        if (!allStarted.await(10, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("Lookups ran one after another: "
+                    + allStarted.getCount() + " never started");
+        }
+    }
+
+    private OrderRequest request(int lines, int distinctProducts) {
+        List<OrderItemRequest> items = new ArrayList<>();
+        for (int i = 0; i < lines; i++) {
+            OrderItemRequest item = new OrderItemRequest();
+            item.setProductId((long) (i % distinctProducts) + 1);
+            item.setQuantity(2);
+            items.add(item);
+        }
+        OrderRequest request = new OrderRequest();
+        request.setUserId(1L);
+        request.setItems(items);
+        return request;
+    }
+
+    private ProductResponse product(Long id, boolean active) {
+        ProductResponse product = new ProductResponse();
+        product.setId(id);
+        product.setName("Product " + id);
+        product.setPrice(new BigDecimal("9.99"));
+        product.setActive(active);
+        return product;
+    }
+
+    private AvailabilityResponse availability(boolean available) {
+        AvailabilityResponse availability = new AvailabilityResponse();
+        availability.setAvailable(available);
+        return availability;
+    }
+}
@@ -0,0 +1,216 @@
+package sahe.com.orderservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import sahe.com.orderservice.client.BatchStockItem;
+import sahe.com.orderservice.exception.DownstreamUnavailableException;
+import sahe.com.orderservice.model.OutboxEvent;
+import sahe.com.orderservice.repository.OutboxEventRepository;
+import sahe.com.orderservice.security.AuthorizationContext;
+import sahe.com.orderservice.security.ServiceCredentials;
+import sahe.com.orderservice.support.StubInventoryServer;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+// The dispatcher commits its own transactions, so the test must not run inside one
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OutboxDispatcherTest {
+
+    private static final String SERVICE_TOKEN = "order-service-token";
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private StubInventoryServer inventory;
+    private SimpleAsyncTaskExecutor executor;
+    private SimpleMeterRegistry meterRegistry;
+    private TransactionTemplate transactionTemplate;
+    private OutboxService outboxService;
+    private OutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        inventory = new StubInventoryServer(100);
+        executor = new SimpleAsyncTaskExecutor("test-outbox-");
+        executor.setVirtualThreads(true);
+        meterRegistry = new SimpleMeterRegistry();
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        JsonMapper mapper = JsonMapper.builder().build();
+        outboxService = new OutboxService(outboxEventRepository, mapper);
+        dispatcher = new OutboxDispatcher(outboxEventRepository, inventory.client(), null, transactionTemplate,
+                mapper, executor, meterRegistry, new ServiceCredentials(SERVICE_TOKEN));
+        ReflectionTestUtils.setField(dispatcher, "parallelism", 10);
+        ReflectionTestUtils.setField(dispatcher, "maxAttempts", 3);
+    }
+
+    @AfterEach
+    void tearDown() {
+        outboxEventRepository.deleteAll();
+        executor.close();
+        inventory.close();
+    }
+
+    @Test
+    void releasesStockAndDrainsTheBacklog() {
+        enqueueReleases(1L, List.of(new BatchStockItem(1L, 5), new BatchStockItem(2L, 3)));
+
+        dispatcher.dispatch();
+
+        assertThat(inventory.remainingStock(1L)).isEqualTo(105);
+        assertThat(inventory.remainingStock(2L)).isEqualTo(103);
+        assertThat(outboxEventRepository.findAll()).allMatch(event -> event.getStatus() == OutboxEvent.Status.DONE);
+        assertThat(meterRegistry.get("order.outbox.backlog").gauge().value()).isZero();
+    }
+
+    @Test
+    void releasesAreSentWithTheServiceToken() {
+        enqueueReleases(1L, List.of(new BatchStockItem(1L, 5), new BatchStockItem(2L, 3)));
+
+        dispatcher.dispatch();
+
+        // Scheduled work has no caller's JWT to forward
+        assertThat(inventory.authorizations("add-stock")).containsExactly(
+                "Bearer " + SERVICE_TOKEN, "Bearer " + SERVICE_TOKEN);
+    }
+
+    @Test
+    void reservationsRunWithTheServiceToken() {
+        OrderService orderService = mock(OrderService.class);
+        List<String> seen = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> seen.add(AuthorizationContext.currentHeader())).when(orderService).reserveStock(1L);
+        dispatcher = new OutboxDispatcher(outboxEventRepository, inventory.client(), orderService, transactionTemplate,
+                JsonMapper.builder().build(), executor, meterRegistry, new ServiceCredentials(SERVICE_TOKEN));
+        transactionTemplate.executeWithoutResult(status -> outboxService.enqueueStockReserve(1L));
+
+        dispatcher.dispatch();
+
+        assertThat(seen).containsExactly("Bearer " + SERVICE_TOKEN);
+        assertThat(AuthorizationContext.currentHeader()).isNull();
+    }
+
+    @Test
+    void failedEventsWaitForTheirBackoff() {
+        ReflectionTestUtils.setField(dispatcher, "initialBackoff", Duration.ofMinutes(1));
+        enqueueReleases(1L, List.of(new BatchStockItem(1L, 5)));
+        inventory.setFailing(true);
+
+        dispatcher.dispatch();
+        OutboxEvent retried = outboxEventRepository.findAll().get(0);
+        assertThat(retried.getStatus()).isEqualTo(OutboxEvent.Status.PENDING);
+        assertThat(retried.getAttempts()).isEqualTo(1);
+        assertThat(retried.getNextAttemptAt()).isAfter(retried.getCreatedAt().plusSeconds(30));
+        assertThat(meterRegistry.get("order.outbox.backlog").gauge().value()).isEqualTo(1);
+
+        // Not due yet: a second run leaves it alone
+        dispatcher.dispatch();
+        assertThat(outboxEventRepository.findAll().get(0).getAttempts()).isEqualTo(1);
+    }
+
+    @Test
+    void failedEventsAreGivenUpAfterTheLastAttempt() {
+        ReflectionTestUtils.setField(dispatcher, "initialBackoff", Duration.ZERO);
+        enqueueReleases(1L, List.of(new BatchStockItem(1L, 5)));
+        inventory.setFailing(true);
+
+        dispatcher.dispatch();
+        dispatcher.dispatch();
+        dispatcher.dispatch();
+        OutboxEvent failed = outboxEventRepository.findAll().get(0);
+        assertThat(failed.getStatus()).isEqualTo(OutboxEvent.Status.FAILED);
+        assertThat(failed.getAttempts()).isEqualTo(3);
+        assertThat(inventory.remainingStock(1L)).isEqualTo(100);
+        assertThat(meterRegistry.get("order.outbox.dispatched").tag("outcome", "failed").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void releaseRetriedAfterALostAnswerIsAppliedOnce() {
+        ReflectionTestUtils.setField(dispatcher, "initialBackoff", Duration.ZERO);
+        enqueueReleases(1L, List.of(new BatchStockItem(1L, 5)));
+        inventory.setLosingAddStockAnswers(true);
+
+        dispatcher.dispatch();
+        assertThat(outboxEventRepository.findAll().get(0).getStatus()).isEqualTo(OutboxEvent.Status.PENDING);
+
+        inventory.setLosingAddStockAnswers(false);
+        dispatcher.dispatch();
+
+        assertThat(outboxEventRepository.findAll().get(0).getStatus()).isEqualTo(OutboxEvent.Status.DONE);
+        assertThat(inventory.requestCount("add-stock")).isEqualTo(2);
+        assertThat(inventory.remainingStock(1L)).isEqualTo(105);
+    }
+
+    @Test
+    void reservationWithoutAnAnswerIsNotRetried() {
+        OrderService orderService = mock(OrderService.class);
+        doThrow(new DownstreamUnavailableException("inventory-service", "no response", Duration.ofSeconds(1),
+                new SocketTimeoutException("Read timed out")))
+                .when(orderService).reserveStock(1L);
+        dispatcher = new OutboxDispatcher(outboxEventRepository, inventory.client(), orderService, transactionTemplate,
+                JsonMapper.builder().build(), executor, meterRegistry, new ServiceCredentials(SERVICE_TOKEN));
+        ReflectionTestUtils.setField(dispatcher, "initialBackoff", Duration.ZERO);
+        transactionTemplate.executeWithoutResult(status -> outboxService.enqueueStockReserve(1L));
+
+        dispatcher.dispatch();
+        dispatcher.dispatch();
+
+        OutboxEvent failed = outboxEventRepository.findAll().get(0);
+        assertThat(failed.getStatus()).isEqualTo(OutboxEvent.Status.FAILED);
+        assertThat(failed.getAttempts()).isEqualTo(1);
+        verify(orderService).reserveStock(1L);
+    }
+
+    @Test
+    void dispatchesInParallel() {
+        inventory.setLatencyMs(200);
+        List<BatchStockItem> items = new ArrayList<>();
+        for (long productId = 1; productId <= 20; productId++) {
+            items.add(new BatchStockItem(productId, 1));
+        }
+        enqueueReleases(1L, items);
+
+        long start = System.nanoTime();
+        dispatcher.dispatch();
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertThat(inventory.requestCount("add-stock")).isEqualTo(20);
+        // 20 calls, 10 at a time: about 2 rounds of latency instead of 20
+        assertThat(elapsedMs).isLessThan(2_000);
+    }
+
+    @Test
+    void backoffDoublesUpToTheCap() {
+        assertThat(dispatcher.backoff(1)).isEqualTo(Duration.ofSeconds(1));
+        assertThat(dispatcher.backoff(4)).isEqualTo(Duration.ofSeconds(8));
+        assertThat(dispatcher.backoff(40)).isEqualTo(Duration.ofMinutes(5));
+    }
+
+    private void enqueueReleases(Long orderId, List<BatchStockItem> items) {
+        transactionTemplate.executeWithoutResult(status -> outboxService.enqueueStockReleases(orderId, items));
+    }
+}
@@ -0,0 +1,151 @@
+package sahe.com.orderservice.service;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import sahe.com.orderservice.client.ProductClient;
+import sahe.com.orderservice.client.ProductResponse;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+class ProductCatalogTest {
+
+    private static final Duration TTL = Duration.ofMinutes(5);
+    private static final Duration REFRESH_AFTER = Duration.ofMinutes(1);
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final Ticker ticker = nanos::get;
+    // Cache work (loads, refreshes) runs at once, except while held: then it waits here until
+    // the test runs it
+    private final BlockingQueue<Runnable> queued = new LinkedBlockingQueue<>();
+    private volatile boolean holding;
+
+    private ProductClient productClient;
+    private SimpleMeterRegistry meterRegistry;
+    private ProductCatalog catalog;
+
+    @BeforeEach
+    void setUp() {
+        productClient = mock(ProductClient.class);
+        meterRegistry = new SimpleMeterRegistry();
+        Executor executor = task -> {
+            if (holding) {
+                queued.add(task);
+            } else {
+                task.run();
+            }
+        };
+        catalog = new ProductCatalog(productClient, executor, meterRegistry, 100, TTL, REFRESH_AFTER, ticker);
+    }
+
+    @Test
+    void repeatedLookupsHitTheCache() {
+        when(productClient.getProductById(1L)).thenReturn(product("10.00"));
+
+        catalog.getProduct(1L);
+        catalog.getProduct(1L);
+        catalog.getProduct(1L);
+
+        verify(productClient, times(1)).getProductById(1L);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", ProductCatalog.CACHE_NAME)
+                .tag("result", "hit").functionCounter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", ProductCatalog.CACHE_NAME)
+                .tag("result", "miss").functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void staleEntryIsServedOnceWhileItReloads() {
+        when(productClient.getProductById(1L)).thenReturn(product("10.00"), product("12.00"));
+        catalog.getProduct(1L);
+
+        holding = true;
+        advance(REFRESH_AFTER.plusSeconds(1));
+
+        // The stale price is answered at once and the reload is only scheduled
+        assertThat(catalog.getProduct(1L).getPrice()).isEqualByComparingTo("10.00");
+        verify(productClient, times(1)).getProductById(1L);
+        // A pending reload is not scheduled twice
+        assertThat(catalog.getProduct(1L).getPrice()).isEqualByComparingTo("10.00");
+
+        runQueued();
+
+        assertThat(catalog.getProduct(1L).getPrice()).isEqualByComparingTo("12.00");
+        verify(productClient, times(2)).getProductById(1L);
+    }
+
+    @Test
+    void missIsLoadedOnTheExecutor() throws Exception {
+        when(productClient.getProductById(1L)).thenReturn(product("10.00"));
+        holding = true;
+
+        CompletableFuture<ProductResponse> lookup = CompletableFuture.supplyAsync(() -> catalog.getProduct(1L));
+        Runnable load = queued.poll(5, TimeUnit.SECONDS);
+
+        // The caller only waits for the load; product-service is called by the executor's task
+        assertThat(load).isNotNull();
+        verify(productClient, never()).getProductById(1L);
+        load.run();
+        assertThat(lookup.get(5, TimeUnit.SECONDS).getPrice()).isEqualByComparingTo("10.00");
+    }
+
+    @Test
+    void productServiceErrorsReachTheCaller() {
+        when(productClient.getProductById(1L)).thenThrow(new IllegalStateException("product-service is down"));
+
+        assertThatThrownBy(() -> catalog.getProduct(1L))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("product-service is down");
+    }
+
+    @Test
+    void entryIsNeverServedPastTtl() {
+        when(productClient.getProductById(1L)).thenReturn(product("10.00"), product("12.00"));
+        catalog.getProduct(1L);
+
+        advance(TTL.plusSeconds(1));
+
+        assertThat(catalog.getProduct(1L).getPrice()).isEqualByComparingTo("12.00");
+    }
+
+    @Test
+    void invalidatedProductIsReadAgain() {
+        when(productClient.getProductById(1L)).thenReturn(product("10.00"), product("12.00"));
+        catalog.getProduct(1L);
+
+        catalog.invalidate(1L);
+
+        assertThat(catalog.getProduct(1L).getPrice()).isEqualByComparingTo("12.00");
+    }
+
+    private void runQueued() {
+        Runnable task;
+        while ((task = queued.poll()) != null) {
+            task.run();
+        }
+    }
+
+    private void advance(Duration duration) {
+        nanos.addAndGet(duration.toNanos());
+    }
+
+    private ProductResponse product(String price) {
+        ProductResponse product = new ProductResponse();
+        product.setId(1L);
+        product.setName("Keyboard");
+        product.setPrice(new BigDecimal(price));
+        product.setActive(true);
+        return product;
+    }
+}
@@ -0,0 +1,135 @@
+package sahe.com.orderservice.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import sahe.com.orderservice.client.StockReservationResult;
+import sahe.com.orderservice.exception.StockReservationException;
+import sahe.com.orderservice.model.OrderItem;
+import sahe.com.orderservice.support.StubInventoryServer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StockReservationServiceTest {
+
+    private StubInventoryServer inventory;
+    private SimpleAsyncTaskExecutor executor;
+    private StockReservationService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        inventory = new StubInventoryServer(100);
+        executor = new SimpleAsyncTaskExecutor("test-remote-call-");
+        executor.setVirtualThreads(true);
+        service = new StockReservationService(inventory.client(), executor);
+        ReflectionTestUtils.setField(service, "fallbackParallelism", 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.close();
+        inventory.close();
+    }
+
+    @Test
+    void reservesWholeOrderInOneRoundTrip() {
+        List<StockReservationResult> results = service.reserve(1L, items(30));
+
+        assertThat(results).hasSize(30).allMatch(StockReservationResult::getSuccess);
+        assertThat(inventory.requestCount("reduce-stock-batch")).isEqualTo(1);
+        assertThat(inventory.requestCount("reduce-stock")).isZero();
+        assertThat(inventory.remainingStock(1L)).isEqualTo(99);
+    }
+
+    @Test
+    void mergesLinesOfTheSameProduct() {
+        List<OrderItem> items = new ArrayList<>(items(3));
+        items.addAll(items(3));
+
+        List<StockReservationResult> results = service.reserve(1L, items);
+
+        assertThat(results).hasSize(3);
+        assertThat(inventory.remainingStock(2L)).isEqualTo(96);
+    }
+
+    @Test
+    void fallsBackToBoundedParallelSingleCalls() {
+        inventory.setBatchSupported(false);
+        inventory.setLatencyMs(100);
+
+        long start = System.nanoTime();
+        List<StockReservationResult> results = service.reserve(1L, items(20));
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertThat(results).hasSize(20).allMatch(StockReservationResult::getSuccess);
+        assertThat(inventory.requestCount("reduce-stock")).isEqualTo(20);
+        // 20 calls, 4 at a time: about 5 rounds of latency instead of 20
+        assertThat(elapsedMs).isLessThan(1_500);
+
+        service.reserve(2L, items(5));
+        assertThat(inventory.requestCount("reduce-stock-batch")).isEqualTo(1);
+        assertThat(inventory.requestCount("reduce-stock")).isEqualTo(25);
+    }
+
+    @Test
+    void reportsRejectedLinesWithEveryResult() {
+        inventory.setStock(3L, 1);
+
+        assertThatThrownBy(() -> service.reserve(1L, items(5)))
+                .isInstanceOf(StockReservationException.class)
+                .hasMessageStartingWith("Failed to reduce stock for product 3")
+                .satisfies(e -> assertThat(((StockReservationException) e).getResults())
+                        .hasSize(5)
+                        .filteredOn(result -> !result.getSuccess())
+                        .extracting(StockReservationResult::getProductId)
+                        .containsExactly(3L));
+    }
+
+    @Test
+    void unknownProductFailsItsLineWithoutDisablingTheBatch() {
+        inventory.setUnknown(3L);
+
+        assertThatThrownBy(() -> service.reserve(1L, items(5)))
+                .isInstanceOf(StockReservationException.class)
+                .hasMessage("Failed to reduce stock for product 3: Product not found in inventory");
+
+        service.reserve(2L, items(2));
+        assertThat(inventory.requestCount("reduce-stock-batch")).isEqualTo(2);
+        assertThat(inventory.requestCount("reduce-stock")).isEqualTo(5);
+    }
+
+    @Test
+    void batchAnswerMustCoverEveryRequestedLine() {
+        inventory.setBatchAnswer(results -> results.subList(0, results.size() - 1));
+
+        assertThatThrownBy(() -> service.reserve(1L, items(3)))
+                .isInstanceOf(StockReservationException.class)
+                .hasMessageContaining("missing [3]")
+                .satisfies(e -> assertThat(((StockReservationException) e).getResults())
+                        .extracting(StockReservationResult::getProductId)
+                        .containsExactly(1L, 2L));
+
+        inventory.setBatchAnswer(results -> List.of(results.get(0), results.get(0), results.get(1)));
+
+        assertThatThrownBy(() -> service.reserve(2L, items(2)))
+                .isInstanceOf(StockReservationException.class)
+                .hasMessageContaining("unexpected [1]");
+    }
+
+    private List<OrderItem> items(int count) {
+        List<OrderItem> items = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            OrderItem item = new OrderItem();
+            item.setProductId((long) i);
+            item.setQuantity(i);
+            items.add(item);
+        }
+        return items;
+    }
+}
@@ -0,0 +1,110 @@
+package sahe.com.orderservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import sahe.com.orderservice.dto.OrderHeader;
+import sahe.com.orderservice.dto.UserOrderSummaryResponse;
+import sahe.com.orderservice.model.Order;
+import sahe.com.orderservice.model.UserOrderSummary;
+import sahe.com.orderservice.repository.OrderRepository;
+import sahe.com.orderservice.repository.UserOrderSummaryRepository;
+import sahe.com.orderservice.support.TestOrders;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class UserOrderSummaryServiceTest {
+
+    private static final long USER_ID = 7L;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private UserOrderSummaryRepository summaryRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private UserOrderSummaryService summaryService;
+
+    @BeforeEach
+    void setUp() {
+        summaryService = new UserOrderSummaryService(summaryRepository, orderRepository, JsonMapper.builder().build(),
+                transactionManager);
+        ReflectionTestUtils.setField(summaryService, "recentOrders", 2);
+    }
+
+    @Test
+    void firstReadBuildsTheSummaryAndChangesApplyAsDeltas() {
+        order(Order.OrderStatus.DELIVERED, "30.00");
+        order(Order.OrderStatus.CANCELLED, "99.00");
+
+        UserOrderSummaryResponse built = summaryService.getSummary(USER_ID);
+        assertThat(built.totalOrders()).isEqualTo(2);
+        assertThat(built.lifetimeSpend()).isEqualByComparingTo("30.00");
+
+        Order created = order(Order.OrderStatus.PENDING, "20.00");
+        summaryService.recordCreated(created);
+        summaryService.recordStatusChange(USER_ID, new OrderHeader(created.getId(), Order.OrderStatus.CONFIRMED,
+                created.getTotalAmount(), created.getCreatedAt()), Order.OrderStatus.PENDING);
+        entityManager.flush();
+
+        UserOrderSummaryResponse summary = summaryService.getSummary(USER_ID);
+        assertThat(summary.counts())
+                .containsEntry(Order.OrderStatus.CONFIRMED, 1L)
+                .containsEntry(Order.OrderStatus.PENDING, 0L)
+                .containsEntry(Order.OrderStatus.DELIVERED, 1L)
+                .containsEntry(Order.OrderStatus.CANCELLED, 1L);
+        assertThat(summary.lifetimeSpend()).isEqualByComparingTo("50.00");
+        // Newest first, capped at order.summary.recent-orders
+        assertThat(summary.recentOrders()).hasSize(2);
+        assertThat(summary.recentOrders().get(0).id()).isEqualTo(created.getId());
+        assertThat(summary.recentOrders().get(0).status()).isEqualTo(Order.OrderStatus.CONFIRMED);
+    }
+
+    @Test
+    void reconcilerRebuildsDriftedAndMissingSummaries() {
+        order(Order.OrderStatus.SHIPPED, "10.00");
+        summaryService.getSummary(USER_ID);
+        UserOrderSummary drifted = summaryRepository.findById(USER_ID).orElseThrow();
+        drifted.setShippedCount(5);
+        drifted.setLifetimeSpend(new BigDecimal("1.00"));
+        order(8L, Order.OrderStatus.PENDING, "15.00");
+
+        new UserOrderSummaryReconciler(summaryRepository, orderRepository, summaryService, new SimpleMeterRegistry())
+                .reconcile();
+        entityManager.flush();
+        entityManager.clear();
+
+        UserOrderSummary fixed = summaryRepository.findById(USER_ID).orElseThrow();
+        assertThat(fixed.getShippedCount()).isEqualTo(1);
+        assertThat(fixed.getLifetimeSpend()).isEqualByComparingTo("10.00");
+        assertThat(summaryRepository.findById(8L)).get()
+                .extracting(UserOrderSummary::getPendingCount).isEqualTo(1L);
+    }
+
+    private Order order(Order.OrderStatus status, String total) {
+        return order(USER_ID, status, total);
+    }
+
+    private Order order(Long userId, Order.OrderStatus status, String total) {
+        Order order = TestOrders.order(userId, status);
+        order.setTotalAmount(new BigDecimal(total));
+        entityManager.persist(order);
+        entityManager.flush();
+        return order;
+    }
+}
@@ -0,0 +1,39 @@
+package sahe.com.orderservice.support;
+
+import org.hibernate.SessionEventListener;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counts JDBC round trips made by Hibernate sessions: single statement executions and batch
+ * executions. Registered with hibernate.session.events.auto; Hibernate creates one instance per
+ * session, so the counts are static.
+ */
+public class JdbcExecutionCounter implements SessionEventListener {
+
+    private static final AtomicInteger STATEMENTS = new AtomicInteger();
+    private static final AtomicInteger BATCHES = new AtomicInteger();
+
+    public static void reset() {
+        STATEMENTS.set(0);
+        BATCHES.set(0);
+    }
+
+    public static int statements() {
+        return STATEMENTS.get();
+    }
+
+    public static int batches() {
+        return BATCHES.get();
+    }
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        STATEMENTS.incrementAndGet();
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        BATCHES.incrementAndGet();
+    }
+}
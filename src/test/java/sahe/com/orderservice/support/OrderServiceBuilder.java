@@ -0,0 +1,95 @@
+package sahe.com.orderservice.support;
+
+import jakarta.persistence.EntityManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import sahe.com.orderservice.repository.OrderItemRepository;
+import sahe.com.orderservice.repository.OrderRepository;
+import sahe.com.orderservice.service.OrderMetrics;
+import sahe.com.orderservice.service.OrderReadCache;
+import sahe.com.orderservice.service.OrderService;
+import sahe.com.orderservice.service.OrderValidator;
+import sahe.com.orderservice.service.OutboxService;
+import sahe.com.orderservice.service.ReadYourWritesGuard;
+import sahe.com.orderservice.service.StockReservationService;
+import sahe.com.orderservice.service.UserOrderSummaryService;
+
+import java.time.Duration;
+
+/**
+ * Builds an {@link OrderService} from only the collaborators a test exercises; the rest stay
+ * null, and replica routing is off.
+ */
+public final class OrderServiceBuilder {
+
+    private final OrderRepository orderRepository;
+    private OrderItemRepository orderItemRepository;
+    private OrderValidator orderValidator;
+    private StockReservationService stockReservationService;
+    private OutboxService outboxService;
+    private UserOrderSummaryService userOrderSummaryService;
+    private OrderReadCache orderReadCache;
+    private TransactionTemplate transactionTemplate;
+    private OrderMetrics orderMetrics;
+    private EntityManager entityManager;
+    private final ReadYourWritesGuard readYourWritesGuard = new ReadYourWritesGuard(false, Duration.ofSeconds(10));
+
+    private OrderServiceBuilder(OrderRepository orderRepository) {
+        this.orderRepository = orderRepository;
+    }
+
+    public static OrderServiceBuilder orderService(OrderRepository orderRepository) {
+        return new OrderServiceBuilder(orderRepository);
+    }
+
+    public OrderServiceBuilder orderItemRepository(OrderItemRepository orderItemRepository) {
+        this.orderItemRepository = orderItemRepository;
+        return this;
+    }
+
+    public OrderServiceBuilder orderValidator(OrderValidator orderValidator) {
+        this.orderValidator = orderValidator;
+        return this;
+    }
+
+    public OrderServiceBuilder stockReservationService(StockReservationService stockReservationService) {
+        this.stockReservationService = stockReservationService;
+        return this;
+    }
+
+    public OrderServiceBuilder outboxService(OutboxService outboxService) {
+        this.outboxService = outboxService;
+        return this;
+    }
+
+    public OrderServiceBuilder userOrderSummaryService(UserOrderSummaryService userOrderSummaryService) {
+        this.userOrderSummaryService = userOrderSummaryService;
+        return this;
+    }
+
+    public OrderServiceBuilder orderReadCache(OrderReadCache orderReadCache) {
+        this.orderReadCache = orderReadCache;
+        return this;
+    }
+
+    public OrderServiceBuilder transactionManager(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        return this;
+    }
+
+    public OrderServiceBuilder orderMetrics(OrderMetrics orderMetrics) {
+        this.orderMetrics = orderMetrics;
+        return this;
+    }
+
+    public OrderServiceBuilder entityManager(EntityManager entityManager) {
+        this.entityManager = entityManager;
+        return this;
+    }
+
+    public OrderService build() {
+        return new OrderService(orderRepository, orderItemRepository, orderValidator, stockReservationService,
+                outboxService, userOrderSummaryService, orderReadCache, transactionTemplate, orderMetrics, entityManager,
+                readYourWritesGuard);
+    }
+}
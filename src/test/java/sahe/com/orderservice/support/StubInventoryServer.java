@@ -0,0 +1,286 @@
+package sahe.com.orderservice.support;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import feign.Capability;
+import feign.Feign;
+import feign.Retryer;
+import feign.Target;
+import org.springframework.cloud.openfeign.support.SpringMvcContract;
+import sahe.com.orderservice.client.*;
+import sahe.com.orderservice.config.FeignConfig;
+import sahe.com.orderservice.security.ServiceCredentials;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * In-process stand-in for inventory-service. Keeps stock per product in memory, counts the
+ * requests it receives per endpoint and can simulate latency, outages, a missing batch endpoint,
+ * unknown products, a malformed batch answer or an add-stock answer lost after it was applied.
+ * Like inventory-service, add-stock applies an Idempotency-Key once and replays its answer.
+ * The Authorization header of each request is recorded per endpoint.
+ */
+public class StubInventoryServer implements AutoCloseable {
+
+    private static final Pattern REDUCE_STOCK = Pattern.compile("/inventory/product/(\\d+)/reduce-stock");
+    private static final Pattern ADD_STOCK = Pattern.compile("/inventory/product/(\\d+)/add-stock");
+
+    private final HttpServer server;
+    private final JsonMapper mapper = JsonMapper.builder().build();
+    private final Map<Long, AtomicInteger> stock = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> requestCounts = new ConcurrentHashMap<>();
+    private final Set<Long> unknownProducts = ConcurrentHashMap.newKeySet();
+    private final Map<String, InventoryResponse> addedStock = new ConcurrentHashMap<>();
+    private final Map<String, List<String>> authorizations = new ConcurrentHashMap<>();
+    private final int defaultStock;
+
+    private volatile boolean batchSupported = true;
+    private volatile long latencyMs;
+    private volatile boolean failing;
+    private volatile boolean losingAddStockAnswers;
+    private volatile UnaryOperator<List<StockReservationResult>> batchAnswer = UnaryOperator.identity();
+
+    public StubInventoryServer(int defaultStock) throws IOException {
+        this.defaultStock = defaultStock;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        this.server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        this.server.createContext("/inventory", this::handle);
+        this.server.start();
+    }
+
+    public String baseUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    /**
+     * Feign client using the same contract, client name and Authorization forwarding
+     * ({@link FeignConfig#requestInterceptor}, without a service token) as the production {@link InventoryClient}.
+     */
+    public InventoryClient client(Capability... capabilities) {
+        Feign.Builder builder = Feign.builder()
+                .retryer(Retryer.NEVER_RETRY)
+                .requestInterceptor(new FeignConfig().requestInterceptor(new ServiceCredentials("")));
+        for (Capability capability : capabilities) {
+            builder.addCapability(capability);
+        }
+        return builder
+                .contract(new SpringMvcContract())
+                .encoder((body, bodyType, template) -> {
+                    template.header("Content-Type", "application/json");
+                    template.body(mapper.writeValueAsBytes(body), StandardCharsets.UTF_8);
+                })
+                .decoder((response, type) -> mapper.readValue(
+                        response.body().asInputStream(), mapper.getTypeFactory().constructType(type)))
+                .target(new Target.HardCodedTarget<>(InventoryClient.class, "inventory-service", baseUrl()));
+    }
+
+    public void setBatchSupported(boolean batchSupported) {
+        this.batchSupported = batchSupported;
+    }
+
+    /** Answers 404 for the product, and for any batch that contains it. */
+    public void setUnknown(Long productId) {
+        unknownProducts.add(productId);
+    }
+
+    /** Rewrites the results of every batch before they are sent. */
+    public void setBatchAnswer(UnaryOperator<List<StockReservationResult>> batchAnswer) {
+        this.batchAnswer = batchAnswer;
+    }
+
+    public void setFailing(boolean failing) {
+        this.failing = failing;
+    }
+
+    // add-stock still applies the change but answers 500, as if the response was lost
+    public void setLosingAddStockAnswers(boolean losingAddStockAnswers) {
+        this.losingAddStockAnswers = losingAddStockAnswers;
+    }
+
+    public void setLatencyMs(long latencyMs) {
+        this.latencyMs = latencyMs;
+    }
+
+    public void setStock(Long productId, int quantity) {
+        stockOf(productId).set(quantity);
+    }
+
+    public int remainingStock(Long productId) {
+        return stockOf(productId).get();
+    }
+
+    public int requestCount(String endpoint) {
+        AtomicInteger count = requestCounts.get(endpoint);
+        return count != null ? count.get() : 0;
+    }
+
+    /** Authorization headers received on the endpoint, in arrival order; "" when one was missing. */
+    public List<String> authorizations(String endpoint) {
+        return authorizations.getOrDefault(endpoint, List.of());
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (latencyMs > 0) {
+                Thread.sleep(latencyMs);
+            }
+            if (failing) {
+                exchange.sendResponseHeaders(503, -1);
+                return;
+            }
+            String method = exchange.getRequestMethod();
+            String path = exchange.getRequestURI().getPath();
+
+            if ("GET".equals(method) && path.equals("/inventory/check-availability")) {
+                count("check-availability", exchange);
+                Map<String, String> query = query(exchange.getRequestURI().getRawQuery());
+                Long productId = Long.valueOf(query.get("productId"));
+                int quantity = Integer.parseInt(query.get("quantity"));
+                AvailabilityResponse availability = new AvailabilityResponse();
+                availability.setProductId(productId);
+                availability.setRequestedQuantity(quantity);
+                availability.setAvailable(stockOf(productId).get() >= quantity);
+                respond(exchange, 200, availability);
+                return;
+            }
+
+            if ("POST".equals(method) && path.equals("/inventory/reduce-stock/batch")) {
+                count("reduce-stock-batch", exchange);
+                if (!batchSupported) {
+                    exchange.sendResponseHeaders(404, -1);
+                    return;
+                }
+                BatchStockUpdateRequest request =
+                        mapper.readValue(exchange.getRequestBody(), BatchStockUpdateRequest.class);
+                if (request.getItems().stream().anyMatch(item -> unknownProducts.contains(item.getProductId()))) {
+                    respond(exchange, 404, Map.of("error", "Product not found"));
+                    return;
+                }
+                List<StockReservationResult> results = new ArrayList<>();
+                for (BatchStockItem item : request.getItems()) {
+                    Integer remaining = take(item.getProductId(), item.getQuantity());
+                    results.add(new StockReservationResult(item.getProductId(), item.getQuantity(),
+                            remaining != null, remaining, remaining != null ? null : "Insufficient stock"));
+                }
+                respond(exchange, 200, batchAnswer.apply(results));
+                return;
+            }
+
+            Matcher reduceStock = REDUCE_STOCK.matcher(path);
+            if ("POST".equals(method) && reduceStock.matches()) {
+                count("reduce-stock", exchange);
+                Long productId = Long.valueOf(reduceStock.group(1));
+                if (unknownProducts.contains(productId)) {
+                    respond(exchange, 404, Map.of("error", "Product not found"));
+                    return;
+                }
+                StockUpdateRequest request = mapper.readValue(exchange.getRequestBody(), StockUpdateRequest.class);
+                Integer remaining = take(productId, request.getQuantity());
+                if (remaining == null) {
+                    respond(exchange, 409, Map.of("error", "Insufficient stock"));
+                    return;
+                }
+                respond(exchange, 200, inventory(productId, remaining));
+                return;
+            }
+
+            Matcher addStock = ADD_STOCK.matcher(path);
+            if ("POST".equals(method) && addStock.matches()) {
+                count("add-stock", exchange);
+                Long productId = Long.valueOf(addStock.group(1));
+                StockUpdateRequest request = mapper.readValue(exchange.getRequestBody(), StockUpdateRequest.class);
+                String key = exchange.getRequestHeaders().getFirst("Idempotency-Key");
+                InventoryResponse added = key == null
+                        ? inventory(productId, stockOf(productId).addAndGet(request.getQuantity()))
+                        : addedStock.computeIfAbsent(key,
+                                k -> inventory(productId, stockOf(productId).addAndGet(request.getQuantity())));
+                if (losingAddStockAnswers) {
+                    respond(exchange, 500, Map.of("error", "Answer lost"));
+                    return;
+                }
+                respond(exchange, 200, added);
+                return;
+            }
+
+            exchange.sendResponseHeaders(404, -1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Integer take(Long productId, int quantity) {
+        AtomicInteger available = stockOf(productId);
+        while (true) {
+            int current = available.get();
+            if (current < quantity) {
+                return null;
+            }
+            if (available.compareAndSet(current, current - quantity)) {
+                return current - quantity;
+            }
+        }
+    }
+
+    private AtomicInteger stockOf(Long productId) {
+        return stock.computeIfAbsent(productId, id -> new AtomicInteger(defaultStock));
+    }
+
+    private InventoryResponse inventory(Long productId, int quantity) {
+        InventoryResponse inventory = new InventoryResponse();
+        inventory.setProductId(productId);
+        inventory.setQuantity(quantity);
+        inventory.setAvailableQuantity(quantity);
+        return inventory;
+    }
+
+    private void count(String endpoint, HttpExchange exchange) {
+        requestCounts.computeIfAbsent(endpoint, key -> new AtomicInteger()).incrementAndGet();
+        String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+        authorizations.computeIfAbsent(endpoint, key -> new CopyOnWriteArrayList<>())
+                .add(authorization != null ? authorization : "");
+    }
+
+    private void respond(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] bytes = mapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    private Map<String, String> query(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null) {
+            return params;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int separator = pair.indexOf('=');
+            if (separator > 0) {
+                params.put(URLDecoder.decode(pair.substring(0, separator), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return params;
+    }
+}
@@ -0,0 +1,74 @@
+package sahe.com.orderservice.support;
+
+import sahe.com.orderservice.dto.OrderItemRequest;
+import sahe.com.orderservice.dto.OrderRequest;
+import sahe.com.orderservice.model.Order;
+import sahe.com.orderservice.model.OrderItem;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Orders and order requests for the tests: one shipping address, card payment, every product
+ * named "Product {id}" and priced at {@link #UNIT_PRICE}.
+ */
+public final class TestOrders {
+
+    public static final String ADDRESS = "Av. Siempre Viva 742";
+    public static final String CITY = "Lima";
+    public static final String COUNTRY = "Peru";
+    public static final BigDecimal UNIT_PRICE = new BigDecimal("10.00");
+
+    private TestOrders() {
+    }
+
+    /** An order for products 1..{@code lines}, one unit each. */
+    public static Order order(Long userId, Order.OrderStatus status, int lines) {
+        Order order = order(userId, status);
+        for (long productId = 1; productId <= lines; productId++) {
+            order.addItem(item(productId, 1));
+        }
+        order.calculateTotal();
+        return order;
+    }
+
+    /** An order with the given lines, total included. */
+    public static Order order(Long userId, Order.OrderStatus status, OrderItem... items) {
+        Order order = new Order();
+        order.setUserId(userId);
+        order.setStatus(status);
+        order.setShippingAddress(ADDRESS);
+        order.setShippingCity(CITY);
+        order.setShippingCountry(COUNTRY);
+        order.setPaymentMethod("CARD");
+        for (OrderItem item : items) {
+            order.addItem(item);
+        }
+        order.calculateTotal();
+        return order;
+    }
+
+    public static OrderItem item(Long productId, int quantity) {
+        OrderItem item = new OrderItem();
+        item.setProductId(productId);
+        item.setProductName("Product " + productId);
+        item.setQuantity(quantity);
+        item.setUnitPrice(UNIT_PRICE);
+        item.calculateSubtotal();
+        return item;
+    }
+
+    public static OrderRequest request(Long productId, int quantity) {
+        OrderItemRequest item = new OrderItemRequest();
+        item.setProductId(productId);
+        item.setQuantity(quantity);
+        OrderRequest request = new OrderRequest();
+        request.setUserId(7L);
+        request.setShippingAddress(ADDRESS);
+        request.setShippingCity(CITY);
+        request.setShippingCountry(COUNTRY);
+        request.setPaymentMethod("CARD");
+        request.setItems(List.of(item));
+        return request;
+    }
+}